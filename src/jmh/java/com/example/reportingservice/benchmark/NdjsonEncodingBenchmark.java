@@ -0,0 +1,101 @@
+package com.example.reportingservice.benchmark;
+
+import com.example.reportingservice.controller.ReportNdjsonEncoder;
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Encoding of an assembled employees report to NDJSON as WebFlux writes it over pooled Netty
+ * buffers, with the generic Jackson encoder and with {@link ReportNdjsonEncoder}. Scores are
+ * complete reports of all employees per second; the benchmarks return the encoded size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NdjsonEncodingBenchmark {
+
+    private static final ResolvableType EMPLOYEE_REPORT = ResolvableType.forClass(EmployeeReport.class);
+
+    @Param({"100"})
+    public int employees;
+
+    @Param({"31", "365"})
+    public int days;
+
+    private List<EmployeeReport> reports;
+    private Jackson2JsonEncoder jacksonEncoder;
+    private ReportNdjsonEncoder reportEncoder;
+    private NettyDataBufferFactory bufferFactory;
+
+    @Setup
+    public void setUp() {
+        reports = SyntheticRows.employeeRows(employees, days).stream()
+                .collect(Collectors.groupingBy(EmployeeReportRow::getEmployeeId,
+                        LinkedHashMap::new, Collectors.toList()))
+                .values().stream()
+                .map(rows -> new EmployeeReport(rows.get(0).getEmployeeName(), rows.stream()
+                        .map(row -> new DailyHours(row.getDay(), row.getProjectName(), row.getTotalSeconds()))
+                        .toList()))
+                .toList();
+        jacksonEncoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        reportEncoder = new ReportNdjsonEncoder();
+        bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    }
+
+    @Benchmark
+    public long employeesReportToNdjson() {
+        return encode(jacksonEncoder);
+    }
+
+    @Benchmark
+    public long employeesReportToNdjsonWithReportEncoder() {
+        return encode(reportEncoder);
+    }
+
+    private long encode(Encoder<Object> encoder) {
+        return encoder.encode(Flux.fromIterable(reports), bufferFactory, EMPLOYEE_REPORT, MediaType.APPLICATION_NDJSON, Map.of())
+                .map(NdjsonEncodingBenchmark::releasedSize)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static long releasedSize(DataBuffer buffer) {
+        long size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+}
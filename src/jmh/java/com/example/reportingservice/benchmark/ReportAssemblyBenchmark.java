@@ -0,0 +1,101 @@
+package com.example.reportingservice.benchmark;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ProjectReportRow;
+import com.example.reportingservice.repository.ReportFilter;
+import com.example.reportingservice.repository.ReportQueryRepository;
+import com.example.reportingservice.security.CurrentUserService;
+import com.example.reportingservice.security.ReportPrincipal;
+import com.example.reportingservice.service.ReportCache;
+import com.example.reportingservice.service.ReportCoalescer;
+import com.example.reportingservice.service.ReportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.util.context.Context;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembly of complete admin reports by {@link ReportService} from an in-memory row stream:
+ * grouping rows per employee or project, mapping them and building the report lists. The
+ * database and the report cache are left out. Scores are complete reports of all employees or
+ * projects per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportAssemblyBenchmark {
+
+    private static final Context ADMIN = Context.of(ReportPrincipal.class, ReportPrincipal.admin("admin"));
+
+    @Param({"100"})
+    public int employees;
+
+    @Param({"31", "365"})
+    public int days;
+
+    /** Requests run alone, so with coalescing this is the cost of passing reports through it. */
+    @Param({"false", "true"})
+    public boolean coalescing;
+
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        List<EmployeeReportRow> employeeRows = SyntheticRows.employeeRows(employees, days);
+        List<ProjectReportRow> projectRows = SyntheticRows.projectRows(employees, days);
+        ReportQueryRepository repository = new ReportQueryRepository(null) {
+            @Override
+            public Flux<EmployeeReportRow> findEmployeeRows(ReportFilter filter) {
+                return Flux.fromIterable(employeeRows);
+            }
+
+            @Override
+            public Flux<ProjectReportRow> findProjectRows(ReportFilter filter) {
+                return Flux.fromIterable(projectRows);
+            }
+        };
+        ReportingProperties properties = new ReportingProperties();
+        properties.getCache().setEnabled(false);
+        properties.getCoalescing().setEnabled(coalescing);
+        reportService = new ReportService(
+                repository,
+                new CurrentUserService(null),
+                new ReportCache(properties, new SimpleMeterRegistry()),
+                new ReportCoalescer(properties, new SimpleMeterRegistry()),
+                properties);
+    }
+
+    @Benchmark
+    public void employeesReport(Blackhole blackhole) {
+        reportService.streamEmployeesReport(null, null)
+                .doOnNext(blackhole::consume)
+                .contextWrite(ADMIN)
+                .blockLast();
+    }
+
+    @Benchmark
+    public void projectsReport(Blackhole blackhole) {
+        reportService.streamProjectsReport(null, null)
+                .doOnNext(blackhole::consume)
+                .contextWrite(ADMIN)
+                .blockLast();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.reportingservice.benchmark;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ReportFilter;
+import com.example.reportingservice.repository.ReportQueryRepository;
+import com.example.reportingservice.security.CurrentUserService;
+import com.example.reportingservice.security.ReportPrincipal;
+import com.example.reportingservice.service.ReportCache;
+import com.example.reportingservice.service.ReportCoalescer;
+import com.example.reportingservice.service.ReportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bursts of identical admin employees reports requested at the same moment, as when a dashboard
+ * is opened by many users at once. Each statement answers after {@code queryMillis} and is then
+ * assembled in memory. Scores are bursts per second; {@code queries} counts the statements run,
+ * so divided by the bursts it gives the statements per burst.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportCoalescingBenchmark {
+
+    private static final Context ADMIN = Context.of(ReportPrincipal.class, ReportPrincipal.admin("admin"));
+
+    @Param({"100"})
+    public int employees;
+
+    @Param({"31"})
+    public int days;
+
+    @Param({"2"})
+    public int queryMillis;
+
+    @Param({"1", "8"})
+    public int requests;
+
+    @Param({"false", "true"})
+    public boolean coalescing;
+
+    private final AtomicLong executed = new AtomicLong();
+    private ReportService reportService;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long queries;
+    }
+
+    @Setup
+    public void setUp() {
+        List<EmployeeReportRow> employeeRows = SyntheticRows.employeeRows(employees, days);
+        ReportQueryRepository repository = new ReportQueryRepository(null) {
+            @Override
+            public Flux<EmployeeReportRow> findEmployeeRows(ReportFilter filter) {
+                return Mono.delay(Duration.ofMillis(queryMillis))
+                        .doOnNext(tick -> executed.incrementAndGet())
+                        .thenMany(Flux.fromIterable(employeeRows));
+            }
+        };
+        ReportingProperties properties = new ReportingProperties();
+        properties.getCache().setEnabled(false);
+        properties.getCoalescing().setEnabled(coalescing);
+        reportService = new ReportService(
+                repository,
+                new CurrentUserService(null),
+                new ReportCache(properties, new SimpleMeterRegistry()),
+                new ReportCoalescer(properties, new SimpleMeterRegistry()),
+                properties);
+    }
+
+    @Benchmark
+    public void employeesReportBurst(Statements statements, Blackhole blackhole) {
+        long before = executed.get();
+        Flux.range(0, requests)
+                .flatMap(request -> reportService.streamEmployeesReport(null, null), requests)
+                .doOnNext(blackhole::consume)
+                .contextWrite(ADMIN)
+                .blockLast();
+        statements.queries += executed.get() - before;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.reportingservice.benchmark;
+
+import com.example.reportingservice.config.ResponseCompressor;
+import com.example.reportingservice.controller.ReportNdjsonEncoder;
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.repository.EmployeeReportRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compression of an employees report's NDJSON lines as {@link ResponseCompressor} writes a report
+ * response, flushed every {@code flushSize} bytes at a line boundary. Scores are complete reports
+ * per second, so the uncompressed size printed at setup divided by the score is the CPU time per
+ * byte; the benchmarks return the compressed size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseCompressionBenchmark {
+
+    @Param({"100"})
+    public int employees;
+
+    @Param({"365"})
+    public int days;
+
+    /** Coding and level. */
+    @Param({"gzip:1", "gzip:6", "zstd:1", "zstd:3"})
+    public String compression;
+
+    @Param({"65536"})
+    public int flushSize;
+
+    private List<byte[]> lines;
+    private ResponseCompressor compressor;
+
+    @Setup
+    public void setUp() {
+        List<EmployeeReport> reports = SyntheticRows.employeeRows(employees, days).stream()
+                .collect(Collectors.groupingBy(EmployeeReportRow::getEmployeeId,
+                        LinkedHashMap::new, Collectors.toList()))
+                .values().stream()
+                .map(rows -> new EmployeeReport(rows.get(0).getEmployeeName(), rows.stream()
+                        .map(row -> new DailyHours(row.getDay(), row.getProjectName(), row.getTotalSeconds()))
+                        .toList()))
+                .toList();
+        lines = new ReportNdjsonEncoder().encode(Flux.fromIterable(reports), DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(EmployeeReport.class), MediaType.APPLICATION_NDJSON, Map.of())
+                .map(ResponseCompressionBenchmark::releasedBytes)
+                .collectList()
+                .block();
+        String[] codingAndLevel = compression.split(":");
+        compressor = new ResponseCompressor(ResponseCompressor.Coding.valueOf(codingAndLevel[0].toUpperCase()),
+                Integer.parseInt(codingAndLevel[1]), flushSize, Duration.ofHours(1));
+        long size = lines.stream().mapToLong(line -> line.length).sum();
+        System.out.printf("%n%s: %d bytes of NDJSON compressed to %d bytes%n", compression, size, compress());
+    }
+
+    @Benchmark
+    public long employeesReportCompressed() {
+        return compress();
+    }
+
+    private long compress() {
+        return compressor.compress(Flux.fromIterable(lines).map(DefaultDataBufferFactory.sharedInstance::wrap),
+                        DefaultDataBufferFactory.sharedInstance, in -> { }, out -> { })
+                .map(buffer -> (long) buffer.readableByteCount())
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static byte[] releasedBytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.reportingservice.benchmark;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ProjectReportRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of turning report rows into their DTOs, including the rounding of hours to two
+ * decimals. Scores are rows per microsecond.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private List<EmployeeReportRow> employeeRows;
+    private List<ProjectReportRow> projectRows;
+
+    @Setup
+    public void setUp() {
+        employeeRows = SyntheticRows.employeeRows(50, 100).subList(0, ROWS);
+        projectRows = SyntheticRows.projectRows(100, 100).subList(0, ROWS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void employeeRowToDailyHours(Blackhole blackhole) {
+        for (EmployeeReportRow row : employeeRows) {
+            blackhole.consume(new DailyHours(row.getDay(), row.getProjectName(), row.getTotalSeconds()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void projectRowToProjectDailyHours(Blackhole blackhole) {
+        for (ProjectReportRow row : projectRows) {
+            blackhole.consume(new ProjectDailyHours(row.getDay(), row.getTotalSeconds()));
+        }
+    }
+}
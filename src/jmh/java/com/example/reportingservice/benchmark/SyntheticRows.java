@@ -0,0 +1,60 @@
+package com.example.reportingservice.benchmark;
+
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ProjectReportRow;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Report rows shaped like the ones Postgres returns: ordered by employee or project and day,
+ * durations as the summed seconds of a day.
+ */
+final class SyntheticRows {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int PROJECTS = 20;
+
+    private SyntheticRows() {
+    }
+
+    /**
+     * One row per employee, day and project, with one to three projects a day.
+     */
+    static List<EmployeeReportRow> employeeRows(int employees, int days) {
+        Random random = new Random(42);
+        List<EmployeeReportRow> rows = new ArrayList<>();
+        for (long employeeId = 1; employeeId <= employees; employeeId++) {
+            String employeeName = "Employee " + employeeId;
+            for (int day = 0; day < days; day++) {
+                int projects = 1 + random.nextInt(3);
+                for (int project = 0; project < projects; project++) {
+                    rows.add(new EmployeeReportRow(employeeId, employeeName, FIRST_DAY.plusDays(day),
+                            "Project " + (1 + random.nextInt(PROJECTS)), seconds(random)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * One row per project and day.
+     */
+    static List<ProjectReportRow> projectRows(int projects, int days) {
+        Random random = new Random(42);
+        List<ProjectReportRow> rows = new ArrayList<>();
+        for (long projectId = 1; projectId <= projects; projectId++) {
+            String projectName = "Project " + projectId;
+            for (int day = 0; day < days; day++) {
+                rows.add(new ProjectReportRow(projectId, projectName, FIRST_DAY.plusDays(day), seconds(random)));
+            }
+        }
+        return rows;
+    }
+
+    private static long seconds(Random random) {
+        return 900 + random.nextInt(10 * 3600);
+    }
+}
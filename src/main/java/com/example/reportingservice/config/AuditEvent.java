@@ -0,0 +1,17 @@
+package com.example.reportingservice.config;
+
+import lombok.Value;
+
+/**
+ * One completed HTTP request as written to the AUDIT log.
+ */
+@Value
+public class AuditEvent {
+    String method;
+    String path;
+    String query;
+    int status;
+    long durationMs;
+    String user;
+    String error;
+}
@@ -0,0 +1,227 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hands audit events from request threads to a dedicated writer thread through a bounded
+ * lock-free queue, so slow log output never stalls the Netty event loop. The writer drains the
+ * queue in batches of {@code reporting.audit.batch-size} and writes the AUDIT line and the
+ * regular request log line of each event.
+ * <p>
+ * When the queue is full, {@code reporting.audit.overflow-policy} decides what is lost:
+ * <ul>
+ *   <li>{@code DROP_OLDEST} discards the oldest queued event in favour of the new one.</li>
+ *   <li>{@code SAMPLE} keeps only every {@code sample-every}th event once the queue is half full, and drops events while it is full.</li>
+ *   <li>{@code BLOCK} waits up to {@code block-timeout} for space and only then drops the event.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class AuditLog implements SmartLifecycle {
+
+    private static final Logger AUDIT = LoggerFactory.getLogger("AUDIT");
+    private static final Logger REQUESTS = LoggerFactory.getLogger(RequestLoggingFilter.class);
+
+    private final ReportingProperties.Audit properties;
+    private final Consumer<AuditEvent> sink;
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    // Reserved slots: incremented before an event is queued, decremented after it is taken off
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sampleSequence = new AtomicLong();
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter flushed;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    @Autowired
+    public AuditLog(ReportingProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, AuditLog::write);
+    }
+
+    AuditLog(ReportingProperties properties, MeterRegistry meterRegistry, Consumer<AuditEvent> sink) {
+        this.properties = properties.getAudit();
+        this.sink = sink;
+        this.enqueued = Counter.builder("audit.events.enqueued")
+                .description("Audit events handed to the writer")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events lost to the overflow policy")
+                .tag("policy", this.properties.getOverflowPolicy().name())
+                .register(meterRegistry);
+        this.flushed = Counter.builder("audit.events.flushed")
+                .description("Audit events written to the log")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.size", size, AtomicInteger::get)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event for the writer. Never blocks unless the overflow policy is {@code BLOCK}.
+     */
+    public void record(AuditEvent event) {
+        if (!reserve()) {
+            dropped.increment();
+            return;
+        }
+        queue.offer(event);
+        enqueued.increment();
+        if (size.get() >= properties.getBatchSize()) {
+            Thread current = writer;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+    }
+
+    private boolean reserve() {
+        int capacity = properties.getQueueCapacity();
+        switch (properties.getOverflowPolicy()) {
+            case DROP_OLDEST -> {
+                while (!tryReserve(capacity)) {
+                    if (queue.poll() != null) {
+                        size.decrementAndGet();
+                        dropped.increment();
+                    } else {
+                        // The slot's event is still being queued by another thread
+                        Thread.onSpinWait();
+                    }
+                }
+                return true;
+            }
+            case SAMPLE -> {
+                if (size.get() >= capacity / 2 && sampleSequence.incrementAndGet() % properties.getSampleEvery() != 0) {
+                    return false;
+                }
+                return tryReserve(capacity);
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + properties.getBlockTimeout().toNanos();
+                while (!tryReserve(capacity)) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+                return true;
+            }
+            default -> throw new IllegalStateException("Unknown overflow policy " + properties.getOverflowPolicy());
+        }
+    }
+
+    private boolean tryReserve(int capacity) {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Writes up to one batch of queued events and returns how many were written.
+     */
+    int flush() {
+        List<AuditEvent> batch = new ArrayList<>(Math.min(properties.getBatchSize(), Math.max(size.get(), 1)));
+        AuditEvent event;
+        while (batch.size() < properties.getBatchSize() && (event = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(event);
+        }
+        batch.forEach(sink);
+        flushed.increment(batch.size());
+        return batch.size();
+    }
+
+    private static void write(AuditEvent event) {
+        AUDIT.info("type=http method={} path={} query={} status={} durationMs={} user={} error={}",
+            event.getMethod(), event.getPath(), event.getQuery(), event.getStatus(), event.getDurationMs(),
+            event.getUser(), event.getError());
+
+        if (event.getError() != null) {
+            REQUESTS.error("Request completed: {} {} {} | User: {} | Status: {} | Duration: {}ms | Error: {}",
+                event.getMethod(), event.getPath(), event.getQuery(), event.getUser(), event.getStatus(),
+                event.getDurationMs(), event.getError());
+        } else {
+            REQUESTS.info("Request completed: {} {} {} | User: {} | Status: {} | Duration: {}ms",
+                event.getMethod(), event.getPath(), event.getQuery(), event.getUser(), event.getStatus(),
+                event.getDurationMs());
+        }
+    }
+
+    private void writeLoop() {
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        while (running || size.get() > 0) {
+            try {
+                if (flush() < properties.getBatchSize()) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to write audit events", e);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer once everything still queued is written.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(properties.getFlushInterval().toMillis() + TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so every request's event is written.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.core.MethodExecutionInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Records how long callers wait for a pooled connection. r2dbc-proxy times
+ * {@code ConnectionFactory.create()} from subscription until the connection is handed out, which
+ * for the pool is the time spent waiting in its acquire queue plus any connection set-up.
+ */
+class ConnectionAcquireListener implements ProxyExecutionListener {
+
+    static final String ACQUIRE_METRIC = "r2dbc.pool.acquire";
+
+    private final Timer acquired;
+    private final Timer failed;
+
+    ConnectionAcquireListener(MeterRegistry meterRegistry) {
+        this.acquired = timer(meterRegistry, "success");
+        this.failed = timer(meterRegistry, "error");
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionInfo executionInfo) {
+        if (executionInfo.getTarget() instanceof ConnectionFactory && "create".equals(executionInfo.getMethod().getName())) {
+            (executionInfo.getThrown() == null ? acquired : failed).record(executionInfo.getExecuteDuration());
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder(ACQUIRE_METRIC)
+                .description("Time to acquire a connection from the R2DBC pool")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
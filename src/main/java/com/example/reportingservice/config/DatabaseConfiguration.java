@@ -1,69 +1,109 @@
 package com.example.reportingservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.proxy.ProxyConnectionFactory;
-import io.r2dbc.proxy.core.QueryExecutionInfo;
-import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @Slf4j
 public class DatabaseConfiguration implements BeanPostProcessor {
 
-    @Override
-    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) throws BeansException {
-        // Intercept the auto-configured ConnectionFactory and wrap it with proxy
-        if (bean instanceof ConnectionFactory connectionFactory && "connectionFactory".equals(beanName)) {
-            log.info("Wrapping ConnectionFactory with r2dbc-proxy for SQL timing");
-            return ProxyConnectionFactory.builder(connectionFactory)
-                    .listener(new SqlTimingListener())
-                    .build();
-        }
-        return bean;
-    }
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<ReportingProperties> properties;
+    private final ObjectProvider<ReadReplicas> readReplicas;
 
-    private static class SqlTimingListener implements ProxyExecutionListener {
+    public DatabaseConfiguration(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<ReportingProperties> properties,
+                                 ObjectProvider<ReadReplicas> readReplicas) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.readReplicas = readReplicas;
+    }
 
-        @Override
-        public void beforeQuery(QueryExecutionInfo execInfo) {
-            // no action needed
-        }
-        
-        @Override
-        public void afterQuery(QueryExecutionInfo execInfo) {
-            Duration executionTime = execInfo.getExecuteDuration();
-            String query = extractQuery(execInfo);
-            int rowCount = execInfo.getCurrentResultCount();
+    /**
+     * Caps the number of query fingerprints with their own meters; statements beyond it are not recorded.
+     */
+    @Bean
+    public static MeterFilter sqlFingerprintLimit(@Value("${reporting.sql-metrics.max-fingerprints:200}") int maxFingerprints) {
+        return MeterFilter.maximumAllowableTags(SqlMetricsListener.QUERY_METRIC, SqlMetricsListener.FINGERPRINT_TAG,
+                maxFingerprints, MeterFilter.deny());
+    }
 
-            String sanitized = sanitizeQuery(query);
-            long durationMs = executionTime.toMillis();
-            
-            // Regular SQL timing logs only (no audit)
-            if (execInfo.getThrowable() != null) {
-                log.error("SQL failed after {} ms | Query: {} | Error: {}", 
-                    durationMs, sanitized, execInfo.getThrowable().getMessage());
-            } else {
-                log.info("SQL executed in {} ms | Rows: {} | Query: {}", 
-                    durationMs, rowCount, sanitized);
+    /**
+     * A pool per {@code reporting.replicas.urls} entry, sized like the primary's and with the same SQL metrics.
+     */
+    @Bean
+    static ReadReplicas readReplicas(ReportingProperties properties, R2dbcProperties r2dbcProperties, MeterRegistry meterRegistry) {
+        ReportingProperties.Replicas replicaProperties = properties.getReplicas();
+        List<ReadReplicas.Replica> replicas = new ArrayList<>();
+        for (String url : replicaProperties.getUrls()) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+            String username = replicaProperties.getUsername() != null ? replicaProperties.getUsername() : r2dbcProperties.getUsername();
+            String password = replicaProperties.getPassword() != null ? replicaProperties.getPassword() : r2dbcProperties.getPassword();
+            if (username != null) {
+                options.option(ConnectionFactoryOptions.USER, username);
+            }
+            if (password != null) {
+                options.option(ConnectionFactoryOptions.PASSWORD, password);
             }
+            ConnectionFactoryOptions replicaOptions = options.build();
+            String name = replicaOptions.getValue(ConnectionFactoryOptions.HOST) + ":"
+                    + replicaOptions.getValue(ConnectionFactoryOptions.PORT) + "/"
+                    + replicaOptions.getValue(ConnectionFactoryOptions.DATABASE);
+            R2dbcProperties.Pool pool = r2dbcProperties.getPool();
+            ConnectionPoolConfiguration.Builder poolConfiguration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(replicaOptions))
+                    .name(name)
+                    .initialSize(pool.getInitialSize())
+                    .maxSize(pool.getMaxSize());
+            if (pool.getMaxIdleTime() != null) {
+                poolConfiguration.maxIdleTime(pool.getMaxIdleTime());
+            }
+            if (pool.getMaxLifeTime() != null) {
+                poolConfiguration.maxLifeTime(pool.getMaxLifeTime());
+            }
+            ConnectionPool connectionPool = new ConnectionPool(poolConfiguration.build());
+            new ConnectionPoolMetrics(connectionPool, name, Tags.empty()).bindTo(meterRegistry);
+            replicas.add(new ReadReplicas.Replica(name, withMetrics(connectionPool, meterRegistry, properties), connectionPool));
+            log.info("Report queries may use read replica {}", name);
         }
+        return new ReadReplicas(replicas, replicaProperties, meterRegistry);
+    }
 
-        private String extractQuery(QueryExecutionInfo execInfo) {
-            return execInfo.getQueries().isEmpty() ? 
-                "unknown" : 
-                execInfo.getQueries().get(0).getQuery();
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) throws BeansException {
+        // Intercept the auto-configured ConnectionFactory and wrap it with proxy
+        if (bean instanceof ConnectionFactory connectionFactory && "connectionFactory".equals(beanName)) {
+            log.info("Wrapping ConnectionFactory with r2dbc-proxy for SQL and pool acquire metrics");
+            ConnectionFactory primary = withMetrics(connectionFactory, meterRegistry.getObject(), properties.getObject());
+            ReadReplicas replicas = readReplicas.getObject();
+            return replicas.isEmpty() ? primary : new ReplicaRoutingConnectionFactory(primary, replicas);
         }
+        return bean;
+    }
 
-        private String sanitizeQuery(String query) {
-            if (query == null) return "";
-            // Remove extra whitespace and newlines for cleaner logs
-            return query.replaceAll("\\s+", " ").trim();
-        }
+    private static ConnectionFactory withMetrics(ConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                                                 ReportingProperties properties) {
+        return ProxyConnectionFactory.builder(connectionFactory)
+                .listener(new SqlMetricsListener(meterRegistry, properties.getSqlMetrics()))
+                .listener(new ConnectionAcquireListener(meterRegistry))
+                .build();
     }
 }
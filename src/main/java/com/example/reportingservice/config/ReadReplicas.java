@@ -0,0 +1,164 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas serving report queries and their health. Every replica is checked on a fixed
+ * delay and is healthy while it answers and is at most {@code max-lag} behind the primary. A
+ * replica whose connection fails in between is marked down at once and only used again after a
+ * check passes. Replicas start out down until their first check.
+ */
+@Slf4j
+class ReadReplicas implements InitializingBean, DisposableBean {
+
+    /**
+     * Seconds since the last replayed transaction, or 0 when the replica has replayed all WAL it
+     * received (an idle primary sends none) or is not in recovery at all.
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())::float8, 'Infinity')
+            END AS lag_seconds""";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private Disposable healthChecks;
+
+    ReadReplicas(List<Replica> replicas, ReportingProperties.Replicas properties, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = properties.getMaxLag();
+        this.checkInterval = properties.getHealthCheckInterval();
+        for (Replica replica : this.replicas) {
+            Gauge.builder("db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the read replica serves report queries")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag of the read replica at its last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * The next healthy replica in turn, or {@code null} when none is healthy.
+     */
+    Replica select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void markDown(Replica replica, Throwable error) {
+        setHealthy(replica, false, error.getMessage());
+    }
+
+    /**
+     * Checks every replica right away and then each {@code health-check-interval}, each check ending
+     * before the next starts.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!replicas.isEmpty()) {
+            healthChecks = Flux.interval(Duration.ZERO, checkInterval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> Flux.fromIterable(replicas).flatMap(this::check), 0)
+                    .subscribe();
+        }
+    }
+
+    Mono<Void> check(Replica replica) {
+        return Flux.usingWhen(replica.connectionFactory.create(),
+                        connection -> Flux.from(connection.createStatement(LAG_QUERY).execute())
+                                .flatMap(result -> result.map((row, metadata) -> row.get("lag_seconds", Double.class))),
+                        Connection::close)
+                .next()
+                .timeout(checkInterval)
+                .doOnNext(lagSeconds -> {
+                    replica.lagSeconds = lagSeconds;
+                    boolean withinLag = maxLag == null || lagSeconds * 1000 <= maxLag.toMillis();
+                    setHealthy(replica, withinLag, withinLag ? null : String.format("%.1fs behind the primary", lagSeconds));
+                })
+                .doOnError(error -> setHealthy(replica, false, error.toString()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private void setHealthy(Replica replica, boolean healthy, String reason) {
+        if (replica.healthy == healthy) {
+            return;
+        }
+        replica.healthy = healthy;
+        if (healthy) {
+            log.info("Read replica {} serves report queries, {}s behind the primary", replica.name, replica.lagSeconds);
+        } else {
+            log.warn("Read replica {} no longer serves report queries: {}", replica.name, reason);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (healthChecks != null) {
+            healthChecks.dispose();
+        }
+        replicas.forEach(replica -> replica.pool.dispose());
+    }
+
+    static final class Replica {
+
+        private final String name;
+        private final ConnectionFactory connectionFactory;
+        private final Disposable pool;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        /**
+         * @param connectionFactory the replica's pool, possibly wrapped
+         * @param pool              the pool itself, disposed on shutdown
+         */
+        Replica(String name, ConnectionFactory connectionFactory, Disposable pool) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+            this.pool = pool;
+        }
+
+        String name() {
+            return name;
+        }
+
+        ConnectionFactory connectionFactory() {
+            return connectionFactory;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.reportingservice.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Hands out read replica connections to statements subscribed with the {@link #readOnly()}
+ * context and primary connections to everything else. Replicas are used in turn while healthy;
+ * when none is, or a replica connection cannot be opened, the statement runs on the primary.
+ * All statements subscribed with the same context run on the replica chosen for the first of them,
+ * so they see the same point of its replay.
+ * <p>
+ * Unwraps to the primary, so the primary's pool metrics and health check keep working.
+ */
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private static final String READ_ONLY = ReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    private final ConnectionFactory primary;
+    private final ReadReplicas replicas;
+
+    ReplicaRoutingConnectionFactory(ConnectionFactory primary, ReadReplicas replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    /**
+     * Context for statements that only read and may see data up to {@code reporting.replicas.max-lag} old.
+     */
+    public static Context readOnly() {
+        return readOnlySession().context();
+    }
+
+    /**
+     * A new session whose statements all run on the same replica, or all on the primary.
+     */
+    public static ReadOnlySession readOnlySession() {
+        return new ReadOnlySession();
+    }
+
+    @Override
+    @NonNull
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            ReadOnlySession session = context.getOrDefault(READ_ONLY, null);
+            ReadReplicas.Replica replica = session != null ? session.replica(replicas) : null;
+            if (replica == null) {
+                return Mono.from(primary.create());
+            }
+            return Mono.<Connection>from(replica.connectionFactory().create())
+                    .onErrorResume(error -> {
+                        replicas.markDown(replica, error);
+                        return Mono.from(primary.create());
+                    });
+        });
+    }
+
+    @Override
+    @NonNull
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    @NonNull
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    /**
+     * Pins the statements subscribed with its {@link #context()} to the replica selected for the
+     * first of them. A pinned replica that has since been marked down is still tried; if its
+     * connection fails, the statement runs on the primary.
+     */
+    public static final class ReadOnlySession {
+
+        private boolean selected;
+        private volatile ReadReplicas.Replica replica;
+
+        private ReadOnlySession() {
+        }
+
+        public Context context() {
+            return Context.of(READ_ONLY, this);
+        }
+
+        /**
+         * Whether a replica was chosen for the session's statements, which may then lag the primary.
+         */
+        public boolean isReplica() {
+            return replica != null;
+        }
+
+        private synchronized ReadReplicas.Replica replica(ReadReplicas replicas) {
+            if (!selected) {
+                replica = replicas.select();
+                selected = true;
+            }
+            return replica;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the report requests running at once, globally and per user. A request over the global
+ * limit waits in a bounded FIFO queue for up to {@code max-wait}; a full queue, a user over their
+ * own limit (running and waiting requests together) or an expired wait is rejected at once, so
+ * callers get a fast answer instead of an exhausted connection pool.
+ */
+class ReportAdmission {
+
+    enum Rejection {
+        USER_LIMIT("user-limit"),
+        QUEUE_FULL("queue-full"),
+        TIMEOUT("timeout");
+
+        private final String tag;
+
+        Rejection(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    static class RejectedException extends RuntimeException {
+
+        private final Rejection rejection;
+
+        RejectedException(Rejection rejection) {
+            super("Report request rejected: " + rejection.tag, null, false, false);
+            this.rejection = rejection;
+        }
+
+        Rejection getRejection() {
+            return rejection;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxPerUser;
+    private final int queueCapacity;
+    private final Duration maxWait;
+
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    /** Running and waiting requests per user. */
+    private final Map<String, Integer> requestsByUser = new HashMap<>();
+    private int running;
+
+    private final Timer waitTimer;
+    private final Map<Rejection, Counter> rejected = new EnumMap<>(Rejection.class);
+
+    ReportAdmission(ReportingProperties.Admission properties, MeterRegistry meterRegistry) {
+        this.maxConcurrent = properties.getMaxConcurrent();
+        this.maxPerUser = properties.getMaxPerUser();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.maxWait = properties.getMaxWait();
+        this.waitTimer = Timer.builder("report.admission.wait")
+                .description("Time report requests waited for a free slot")
+                .register(meterRegistry);
+        for (Rejection rejection : Rejection.values()) {
+            rejected.put(rejection, Counter.builder("report.admission.rejected")
+                    .description("Report requests rejected with 429")
+                    .tag("reason", rejection.tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("report.admission.running", this, admission -> admission.running())
+                .description("Report requests running")
+                .register(meterRegistry);
+        Gauge.builder("report.admission.queued", this, admission -> admission.queued())
+                .description("Report requests waiting for a free slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Completes once {@code user}'s request may run, which must then be followed by exactly one
+     * {@link #release(String)}. Fails with {@link RejectedException} when it may not run.
+     */
+    Mono<Void> acquire(String user) {
+        return Mono.<Void>create(sink -> {
+            Rejection rejection = enter(user, sink);
+            if (rejection != null) {
+                rejected.get(rejection).increment();
+                sink.error(new RejectedException(rejection));
+            }
+        }).timeout(maxWait, Mono.defer(() -> {
+            rejected.get(Rejection.TIMEOUT).increment();
+            return Mono.error(new RejectedException(Rejection.TIMEOUT));
+        }));
+    }
+
+    /**
+     * Ends a request admitted by {@link #acquire(String)} and lets the next waiting ones run.
+     */
+    void release(String user) {
+        List<Waiter> admitted = new ArrayList<>();
+        synchronized (this) {
+            running--;
+            leave(user);
+            while (running < maxConcurrent && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                running++;
+                admitted.add(waiter);
+            }
+        }
+        // Outside the lock: a waiter's request continues on this thread
+        for (Waiter waiter : admitted) {
+            waitTimer.record(System.nanoTime() - waiter.enqueued, TimeUnit.NANOSECONDS);
+            waiter.sink.success();
+        }
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    synchronized int queued() {
+        return waiters.size();
+    }
+
+    /**
+     * Admits or queues the request, or returns why it is rejected.
+     */
+    private Rejection enter(String user, MonoSink<Void> sink) {
+        boolean admitted;
+        synchronized (this) {
+            if (requestsByUser.getOrDefault(user, 0) >= maxPerUser) {
+                return Rejection.USER_LIMIT;
+            }
+            admitted = running < maxConcurrent && waiters.isEmpty();
+            if (!admitted) {
+                if (waiters.size() >= queueCapacity) {
+                    return Rejection.QUEUE_FULL;
+                }
+                Waiter waiter = new Waiter(user, sink, System.nanoTime());
+                waiters.add(waiter);
+                sink.onCancel(() -> cancel(waiter));
+            } else {
+                running++;
+            }
+            requestsByUser.merge(user, 1, Integer::sum);
+        }
+        if (admitted) {
+            sink.success();
+        }
+        return null;
+    }
+
+    /**
+     * A waiter cancelled while queued leaves the queue; one admitted at the same moment gives its slot back.
+     */
+    private void cancel(Waiter waiter) {
+        boolean admitted;
+        synchronized (this) {
+            admitted = !waiters.remove(waiter);
+            if (!admitted) {
+                leave(waiter.user);
+            }
+        }
+        if (admitted) {
+            release(waiter.user);
+        }
+    }
+
+    private void leave(String user) {
+        requestsByUser.computeIfPresent(user, (key, requests) -> requests > 1 ? requests - 1 : null);
+    }
+
+    private record Waiter(String user, MonoSink<Void> sink, long enqueued) {
+    }
+}
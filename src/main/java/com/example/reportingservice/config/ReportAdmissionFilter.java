@@ -0,0 +1,67 @@
+package com.example.reportingservice.config;
+
+import com.example.reportingservice.security.ReportPrincipal;
+import com.example.reportingservice.security.ReportPrincipalFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admits report requests through {@link ReportAdmission}. A report holds its slot until the
+ * response is fully written or the client goes away, since a slow client keeps its statement's
+ * connection busy for that long. Rejected requests get {@code 429 Too Many Requests} with
+ * {@code Retry-After}.
+ */
+@Component
+@Order(110)  // After request logging, so rejections are logged too
+@Slf4j
+public class ReportAdmissionFilter implements WebFilter {
+
+    private static final String REPORT_PATH = "/api/v1/report/";
+    private static final byte[] REJECTED_BODY = "Too many concurrent report requests, retry later."
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ReportingProperties.Admission properties;
+    private final ReportAdmission admission;
+
+    public ReportAdmissionFilter(ReportingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getAdmission();
+        this.admission = new ReportAdmission(this.properties, meterRegistry);
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        if (!properties.isEnabled()
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || !exchange.getRequest().getPath().value().startsWith(REPORT_PATH)) {
+            return chain.filter(exchange);
+        }
+        ReportPrincipal principal = ReportPrincipalFilter.getPrincipal(exchange);
+        String user = principal != null ? principal.getUsername() : "anonymous";
+        return admission.acquire(user)
+                .then(Mono.defer(() -> chain.filter(exchange).doFinally(signal -> admission.release(user))))
+                .onErrorResume(ReportAdmission.RejectedException.class, rejected -> reject(exchange.getResponse(), user, rejected));
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, String user, ReportAdmission.RejectedException rejected) {
+        log.info("Rejected report request of {}: {}", user, rejected.getRejection());
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, properties.getRetryAfter().toSeconds())));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.reportingservice.config;
+
+import com.example.reportingservice.controller.ReportMediaTypes;
+import com.github.luben.zstd.util.Native;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compresses report responses with the content coding negotiated from {@code Accept-Encoding}:
+ * zstd when the client accepts it at least as much as gzip, otherwise gzip. Unlike compression in
+ * the server, which would hold back a streamed report until its buffer fills, the body stays a
+ * stream flushed at record boundaries, see {@link ResponseCompressor}. Error responses and any
+ * other content are written as they are.
+ */
+@Component
+@Order(200)
+@Slf4j
+public class ReportCompressionFilter implements WebFilter {
+
+    private static final String REPORT_PATH = "/api/v1/report/";
+    private static final List<MediaType> REPORT_MEDIA_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON, ReportMediaTypes.TEXT_CSV, ReportMediaTypes.ARROW_STREAM);
+
+    private final ReportingProperties.Compression properties;
+    private final boolean zstdAvailable;
+    private final Map<ResponseCompressor.Coding, Counter> bytesIn = new EnumMap<>(ResponseCompressor.Coding.class);
+    private final Map<ResponseCompressor.Coding, Counter> bytesOut = new EnumMap<>(ResponseCompressor.Coding.class);
+
+    public ReportCompressionFilter(ReportingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getCompression();
+        this.zstdAvailable = loadZstd();
+        for (ResponseCompressor.Coding coding : ResponseCompressor.Coding.values()) {
+            bytesIn.put(coding, Counter.builder("report.compression.bytes.in")
+                    .description("Report bytes before compression")
+                    .baseUnit("bytes")
+                    .tag("coding", coding.token())
+                    .register(meterRegistry));
+            bytesOut.put(coding, Counter.builder("report.compression.bytes.out")
+                    .description("Compressed report bytes written to the response")
+                    .baseUnit("bytes")
+                    .tag("coding", coding.token())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        if (!properties.isEnabled()
+                || exchange.getRequest().getMethod() != HttpMethod.GET
+                || !exchange.getRequest().getPath().value().startsWith(REPORT_PATH)) {
+            return chain.filter(exchange);
+        }
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ResponseCompressor.Coding coding = negotiate(
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING), zstdAvailable);
+        if (coding == null) {
+            return chain.filter(exchange);
+        }
+        int level = coding == ResponseCompressor.Coding.ZSTD ? properties.getZstdLevel() : properties.getGzipLevel();
+        ResponseCompressor compressor = new ResponseCompressor(
+                coding, level, properties.getFlushSize().toBytes(), properties.getFlushInterval());
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange.getResponse(), compressor)).build());
+    }
+
+    /**
+     * The coding to use for an {@code Accept-Encoding} header, or {@code null} to send the body as
+     * it is. Codings are weighed by their q-value; {@code *} stands for gzip.
+     */
+    @Nullable
+    static ResponseCompressor.Coding negotiate(@Nullable String acceptEncoding, boolean zstdAvailable) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        Double gzip = null;
+        double zstd = 0;
+        double wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim();
+            double quality = quality(parts);
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equalsIgnoreCase("zstd")) {
+                zstd = Math.max(zstd, quality);
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        if (gzip == null) {
+            gzip = wildcard;
+        }
+        if (zstdAvailable && zstd > 0 && zstd >= gzip) {
+            return ResponseCompressor.Coding.ZSTD;
+        }
+        return gzip > 0 ? ResponseCompressor.Coding.GZIP : null;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean loadZstd() {
+        try {
+            Native.load();
+            return Native.isLoaded();
+        } catch (LinkageError | RuntimeException e) {
+            log.warn("zstd is not available, report responses are only compressed with gzip: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isReport(ServerHttpResponse response) {
+        HttpStatusCode status = response.getStatusCode();
+        MediaType contentType = response.getHeaders().getContentType();
+        return (status == null || status.is2xxSuccessful())
+                && contentType != null
+                && !response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                && REPORT_MEDIA_TYPES.stream().anyMatch(contentType::isCompatibleWith);
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final ResponseCompressor compressor;
+
+        CompressingResponse(ServerHttpResponse delegate, ResponseCompressor compressor) {
+            super(delegate);
+            this.compressor = compressor;
+        }
+
+        @Override
+        @NonNull
+        public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+            if (!isReport(this)) {
+                return super.writeWith(body);
+            }
+            ResponseCompressor.Coding coding = compressor.coding();
+            getHeaders().set(HttpHeaders.CONTENT_ENCODING, coding.token());
+            getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return super.writeWith(compressor.compress(body, bufferFactory(),
+                    bytesIn.get(coding)::increment, bytesOut.get(coding)::increment));
+        }
+
+        /** The compressor decides when to flush, so streamed bodies are written like any other. */
+        @Override
+        @NonNull
+        public Mono<Void> writeAndFlushWith(@NonNull Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!isReport(this)) {
+                return super.writeAndFlushWith(body);
+            }
+            return writeWith(Flux.from(body).concatMap(Flux::from));
+        }
+    }
+}
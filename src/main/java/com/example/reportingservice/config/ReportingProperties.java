@@ -0,0 +1,161 @@
+package com.example.reportingservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service specific settings under the {@code reporting} prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "reporting")
+public class ReportingProperties {
+
+    private Partitions partitions = new Partitions();
+    private Cache cache = new Cache();
+    private Ingestion ingestion = new Ingestion();
+    private CredentialCache credentialCache = new CredentialCache();
+    private PrincipalCache principalCache = new PrincipalCache();
+    private SqlMetrics sqlMetrics = new SqlMetrics();
+    private Audit audit = new Audit();
+    private Compression compression = new Compression();
+    private Sharding sharding = new Sharding();
+    private Admission admission = new Admission();
+    private Replicas replicas = new Replicas();
+    private Coalescing coalescing = new Coalescing();
+
+    @Data
+    public static class Partitions {
+        /** Number of future monthly time_record partitions kept ready ahead of the current month. */
+        private int monthsAhead = 3;
+        /** When to create missing future partitions. */
+        private String maintenanceCron = "0 0 3 * * *";
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        /** Upper bound for the estimated serialized size of all cached reports. */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+        /** Reports estimated larger than this are streamed but not cached. */
+        private DataSize maxEntrySize = DataSize.ofMegabytes(4);
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Ingestion {
+        /** Time records written per statement and transaction when the request does not ask otherwise. */
+        private int batchSize = 1000;
+        /** Largest batch size a request may ask for. */
+        private int maxBatchSize = 10_000;
+    }
+
+    @Data
+    public static class CredentialCache {
+        /** Skip the password hash check for credentials verified within the ttl. */
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofMinutes(5);
+        private long maxSize = 10_000;
+    }
+
+    @Data
+    public static class PrincipalCache {
+        private long maxSize = 10_000;
+        /** Age after which a user's employee mapping is reloaded in the background on next use. */
+        private Duration refreshAfter = Duration.ofMinutes(1);
+        /** Age after which a mapping is no longer served while it is reloaded. */
+        private Duration expireAfter = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class SqlMetrics {
+        /** Statements running at least this long are logged with their fingerprint. */
+        private Duration slowQueryThreshold = Duration.ofMillis(500);
+        /** Distinct statement texts whose fingerprint and meters are kept. */
+        private long maxCachedQueries = 1000;
+        /** Distinct fingerprints with their own meters; further fingerprints are not recorded. */
+        private int maxFingerprints = 200;
+    }
+
+    @Data
+    public static class Audit {
+        /** Audit events waiting for the writer thread before the overflow policy applies. */
+        private int queueCapacity = 8192;
+        /** Events the writer takes off the queue and writes at once. */
+        private int batchSize = 256;
+        /** How long the writer waits for a full batch before writing what is queued. */
+        private Duration flushInterval = Duration.ofMillis(100);
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        /** With {@code BLOCK}, the longest a request waits for space before its event is dropped. */
+        private Duration blockTimeout = Duration.ofMillis(50);
+        /** With {@code SAMPLE}, the fraction (1 in n) of events kept once the queue is half full. */
+        private int sampleEvery = 10;
+
+        public enum OverflowPolicy { BLOCK, DROP_OLDEST, SAMPLE }
+    }
+
+    @Data
+    public static class Compression {
+        /** Compress report responses with zstd or gzip when the client's Accept-Encoding allows it. */
+        private boolean enabled = true;
+        /** Uncompressed bytes after which the compressed stream is flushed at the next record boundary. */
+        private DataSize flushSize = DataSize.ofKilobytes(64);
+        /** Longest time written records wait in the compressor before they are flushed. */
+        private Duration flushInterval = Duration.ofMillis(200);
+        private int gzipLevel = 1;
+        private int zstdLevel = 3;
+    }
+
+    @Data
+    public static class Sharding {
+        /** Split admin reports over long date ranges into sub-ranges queried concurrently. */
+        private boolean enabled = false;
+        /** Most sub-ranges, and so pooled connections, one report queries at once. */
+        private int maxShards = 4;
+        /** Ranges are only split into sub-ranges of at least this many days. */
+        private int minShardDays = 90;
+    }
+
+    @Data
+    public static class Admission {
+        /** Limit concurrent report requests, each of which may hold pooled connections while it streams. */
+        private boolean enabled = true;
+        /** Reports streaming at once; keep it below the connection pool size. */
+        private int maxConcurrent = 6;
+        /** Reports one user may have running or waiting; more are rejected right away. */
+        private int maxPerUser = 2;
+        /** Reports waiting for a free slot; more are rejected right away. */
+        private int queueCapacity = 20;
+        /** Longest a report waits for a free slot before it is rejected. */
+        private Duration maxWait = Duration.ofSeconds(2);
+        /** Sent as {@code Retry-After} with every rejection. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Replicas {
+        /** R2DBC urls of read replicas serving report queries; empty sends everything to the primary. */
+        private List<String> urls = new ArrayList<>();
+        /** Replica credentials, {@code spring.r2dbc.username} and {@code password} when unset. */
+        private String username;
+        private String password;
+        /** Replicas further behind the primary are skipped until they catch up; unset accepts any lag. */
+        private Duration maxLag = Duration.ofSeconds(30);
+        /** How often each replica's reachability and lag are checked. */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Coalescing {
+        /** Run identical concurrent report requests as one execution; off, since it slows requests that run alone. */
+        private boolean enabled = false;
+        /** Requests may join an execution until the reports it produced are estimated larger than this. */
+        private DataSize maxReplaySize = DataSize.ofMegabytes(4);
+        /** Reports an execution reads ahead of its slowest request. */
+        private int prefetch = 256;
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.reportingservice.config;
 
-import lombok.extern.slf4j.Slf4j;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
@@ -10,7 +8,8 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 
-import com.example.reportingservice.security.CurrentUserService;
+import com.example.reportingservice.security.ReportPrincipal;
+import com.example.reportingservice.security.ReportPrincipalFilter;
 
 import reactor.core.publisher.Mono;
 
@@ -18,17 +17,11 @@ import java.time.Duration;
 import java.time.Instant;
 
 @Component
-@Order(100)  // Run after security filters to capture authenticated user
-@Slf4j
+@Order(100)  // Run after ReportPrincipalFilter to capture the resolved user
+@RequiredArgsConstructor
 public class RequestLoggingFilter implements WebFilter {
 
-    private static final Logger AUDIT = LoggerFactory.getLogger("AUDIT");
-
-    CurrentUserService currentUserService;
-
-    public RequestLoggingFilter(CurrentUserService currentUserService) {
-        this.currentUserService = currentUserService;
-    }
+    private final AuditLog auditLog;
 
     @Override
     @NonNull
@@ -38,37 +31,26 @@ public class RequestLoggingFilter implements WebFilter {
         String path = exchange.getRequest().getPath().value();
         String queryParams = exchange.getRequest().getQueryParams().toString();
         
-        return currentUserService.getCurrentUsername()
-                .defaultIfEmpty("anonymous")
-                .flatMap(username -> 
-                    chain.filter(exchange)
-                            .doOnSuccess(aVoid -> {
-                                org.springframework.http.HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
-                                int status = statusCode != null ? statusCode.value() : 200;
-                                logRequestCompletion(method, path, queryParams, startTime, status, null, username);
-                            })
-                            .doOnError(throwable -> 
-                                logRequestCompletion(method, path, queryParams, startTime, 500, throwable, username)
-                            )
+        ReportPrincipal principal = ReportPrincipalFilter.getPrincipal(exchange);
+        String username = principal != null ? principal.getUsername() : "anonymous";
+
+        return chain.filter(exchange)
+                .doOnSuccess(aVoid -> {
+                    org.springframework.http.HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+                    int status = statusCode != null ? statusCode.value() : 200;
+                    logRequestCompletion(method, path, queryParams, startTime, status, null, username);
+                })
+                .doOnError(throwable ->
+                    logRequestCompletion(method, path, queryParams, startTime, 500, throwable, username)
                 );
     }
 
-    private void logRequestCompletion(String method, String path, String queryParams, 
+    private void logRequestCompletion(String method, String path, String queryParams,
                                     Instant startTime, int statusCode, Throwable error, String username) {
         Duration duration = Duration.between(startTime, Instant.now());
-        
-        // Audit log with user information
-        AUDIT.info("type=http method={} path={} query={} status={} durationMs={} user={} error={}", 
-            method, path, queryParams, statusCode, duration.toMillis(), username,
-            error != null ? error.getMessage() : null);
-        
-        // Regular log
-        if (error != null) {
-            log.error("Request completed: {} {} {} | User: {} | Status: {} | Duration: {}ms | Error: {}", 
-                method, path, queryParams, username, statusCode, duration.toMillis(), error.getMessage());
-        } else {
-            log.info("Request completed: {} {} {} | User: {} | Status: {} | Duration: {}ms", 
-                method, path, queryParams, username, statusCode, duration.toMillis());
-        }
+
+        // Audit and request log lines are written by the audit log's writer thread
+        auditLog.record(new AuditEvent(method, path, queryParams, statusCode, duration.toMillis(), username,
+            error != null ? error.getMessage() : null));
     }
 }
@@ -0,0 +1,183 @@
+package com.example.reportingservice.config;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses a response body as one gzip member or zstd frame while keeping it a stream. Each
+ * buffer written by a report encoder is one record (an NDJSON or CSV line, an Arrow message), and
+ * the compressor is flushed only between buffers: once {@code flushSize} uncompressed bytes are
+ * pending, or when {@code flushInterval} passes with anything pending. Every flush emits the
+ * compressed bytes so far, which the client can decompress up to the last complete record.
+ */
+public final class ResponseCompressor {
+
+    public enum Coding {
+        ZSTD("zstd"),
+        GZIP("gzip");
+
+        private final String token;
+
+        Coding(String token) {
+            this.token = token;
+        }
+
+        public String token() {
+            return token;
+        }
+    }
+
+    /** Marks the end of the body among the merged buffers and flush ticks. */
+    private static final Object END = new Object();
+    private static final Object TICK = new Object();
+    private static final int COPY_SIZE = 8192;
+
+    private final Coding coding;
+    private final int level;
+    private final long flushSize;
+    private final Duration flushInterval;
+
+    public ResponseCompressor(Coding coding, int level, long flushSize, Duration flushInterval) {
+        this.coding = coding;
+        this.level = level;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+    }
+
+    Coding coding() {
+        return coding;
+    }
+
+    /**
+     * The compressed body. {@code bytesIn} and {@code bytesOut} are told the uncompressed and
+     * compressed size of every flushed chunk.
+     */
+    public Flux<DataBuffer> compress(Publisher<? extends DataBuffer> body, DataBufferFactory bufferFactory,
+                                     LongConsumer bytesIn, LongConsumer bytesOut) {
+        return Flux.defer(() -> {
+            Compression compression = new Compression(bufferFactory, bytesIn, bytesOut);
+            return Flux.merge(
+                            Flux.from(body).cast(Object.class).concatWith(Mono.just(END)),
+                            Flux.interval(flushInterval).map(tick -> TICK).onBackpressureDrop())
+                    .takeUntil(signal -> signal == END)
+                    .<DataBuffer>handle(compression::accept)
+                    .doFinally(signal -> compression.close());
+        }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private OutputStream open(OutputStream sink) throws IOException {
+        if (coding == Coding.ZSTD) {
+            return new ZstdOutputStream(sink, level);
+        }
+        return new GZIPOutputStream(sink, COPY_SIZE, true) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    /**
+     * Compressor state of one response. Signals arrive one at a time from the merge, but a cancel
+     * may close it from another thread while a tick is being compressed.
+     */
+    private final class Compression {
+
+        private final DataBufferFactory bufferFactory;
+        private final LongConsumer bytesIn;
+        private final LongConsumer bytesOut;
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(COPY_SIZE);
+        private final byte[] copy = new byte[COPY_SIZE];
+        private final OutputStream stream;
+        private long pending;
+        private boolean closed;
+
+        Compression(DataBufferFactory bufferFactory, LongConsumer bytesIn, LongConsumer bytesOut) {
+            this.bufferFactory = bufferFactory;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            try {
+                this.stream = open(compressed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized void accept(Object signal, SynchronousSink<DataBuffer> sink) {
+            if (closed) {
+                if (signal instanceof DataBuffer buffer) {
+                    DataBufferUtils.release(buffer);
+                }
+                return;
+            }
+            try {
+                if (signal == END) {
+                    closed = true;
+                    stream.close();
+                    emit(sink);
+                } else if (signal == TICK) {
+                    if (pending > 0) {
+                        stream.flush();
+                        emit(sink);
+                    }
+                } else {
+                    write((DataBuffer) signal);
+                    if (pending >= flushSize) {
+                        stream.flush();
+                        emit(sink);
+                    }
+                }
+            } catch (IOException e) {
+                sink.error(new UncheckedIOException(e));
+            }
+        }
+
+        private void write(DataBuffer buffer) throws IOException {
+            try {
+                int length;
+                while ((length = Math.min(buffer.readableByteCount(), copy.length)) > 0) {
+                    buffer.read(copy, 0, length);
+                    stream.write(copy, 0, length);
+                    pending += length;
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        private void emit(SynchronousSink<DataBuffer> sink) {
+            bytesIn.accept(pending);
+            bytesOut.accept(compressed.size());
+            pending = 0;
+            if (compressed.size() > 0) {
+                sink.next(bufferFactory.wrap(compressed.toByteArray()));
+                compressed.reset();
+            }
+        }
+
+        /** Frees the compressor (native memory for zstd) when the body ends early. */
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                    // the response is already failed or cancelled
+                }
+            }
+        }
+    }
+}
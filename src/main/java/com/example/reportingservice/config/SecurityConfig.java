@@ -1,10 +1,16 @@
 package com.example.reportingservice.config;
 
+import com.example.reportingservice.security.CachingReactiveAuthenticationManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -37,13 +43,32 @@ public class SecurityConfig {
         return new MapReactiveUserDetailsService(admin, user);
     }
 
+    /**
+     * Checks HTTP Basic credentials against the users above, remembering verified credentials for
+     * {@code reporting.credential-cache.ttl} so polling clients do not pay a BCrypt check per request.
+     */
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public ReactiveAuthenticationManager authenticationManager(ReactiveUserDetailsService userDetailsService,
+                                                               ReportingProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        UserDetailsRepositoryReactiveAuthenticationManager passwordCheck =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        passwordCheck.setPasswordEncoder(passwordEncoder());
+        if (!properties.getCredentialCache().isEnabled()) {
+            return passwordCheck;
+        }
+        return new CachingReactiveAuthenticationManager(passwordCheck, properties.getCredentialCache(), meterRegistry);
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveAuthenticationManager authenticationManager) {
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
-                .httpBasic(httpBasic -> {})
+                .httpBasic(httpBasic -> httpBasic.authenticationManager(authenticationManager))
                 .authorizeExchange(exchanges -> exchanges
                         .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.POST, "/api/v1/time-records").hasRole("ADMIN")
                         .pathMatchers("/api/**").authenticated()
                         .anyExchange().authenticated()
                 )
@@ -0,0 +1,109 @@
+package com.example.reportingservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Records the duration and row count of every SQL statement per query fingerprint: the statement
+ * with whitespace collapsed and literals replaced by {@code ?}. The fingerprint and its meters are
+ * computed once per distinct statement text and cached, so the hot path is a cache lookup and two
+ * meter updates. Only statements slower than {@code reporting.sql-metrics.slow-query-threshold}
+ * and failures are logged.
+ * <p>
+ * r2dbc-proxy only sees the end of a query whose rows are read with {@code Result.map(BiFunction)},
+ * so {@code DatabaseClient} mappings use the {@code (row, metadata) ->} form.
+ */
+@Slf4j
+class SqlMetricsListener implements ProxyExecutionListener {
+
+    static final String QUERY_METRIC = "db.query";
+    static final String ROWS_METRIC = "db.query.rows";
+    static final String FINGERPRINT_TAG = "fingerprint";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])\\d+(?:\\.\\d+)?\\b");
+    private static final int MAX_STATEMENT_TAG_LENGTH = 100;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowQueryThreshold;
+    private final Cache<String, QueryMeters> metersByQuery;
+
+    SqlMetricsListener(MeterRegistry meterRegistry, ReportingProperties.SqlMetrics properties) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryThreshold = properties.getSlowQueryThreshold();
+        this.metersByQuery = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCachedQueries())
+                .build();
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        String query = execInfo.getQueries().isEmpty() ? "unknown" : execInfo.getQueries().get(0).getQuery();
+        QueryMeters meters = metersByQuery.get(query == null ? "" : query, this::createMeters);
+        Duration executionTime = execInfo.getExecuteDuration();
+        int rowCount = execInfo.getCurrentResultCount();
+
+        if (execInfo.getThrowable() != null) {
+            // Failures are rare, their timer is only registered on the first one
+            timer(meters.fingerprint(), meters.statement(), "error").record(executionTime);
+            log.error("SQL failed after {} ms | Fingerprint: {} | Query: {} | Error: {}",
+                executionTime.toMillis(), meters.fingerprint(), meters.normalized(), execInfo.getThrowable().getMessage());
+            return;
+        }
+        meters.succeeded().record(executionTime);
+        meters.rows().record(rowCount);
+        if (executionTime.compareTo(slowQueryThreshold) >= 0) {
+            log.warn("Slow SQL executed in {} ms | Rows: {} | Fingerprint: {} | Query: {}",
+                executionTime.toMillis(), rowCount, meters.fingerprint(), meters.normalized());
+        }
+    }
+
+    private QueryMeters createMeters(String query) {
+        String normalized = normalize(query);
+        String fingerprint = String.format("%08x", normalized.hashCode());
+        String statement = normalized.length() > MAX_STATEMENT_TAG_LENGTH
+                ? normalized.substring(0, MAX_STATEMENT_TAG_LENGTH) + "..."
+                : normalized;
+        return new QueryMeters(
+                fingerprint,
+                normalized,
+                statement,
+                timer(fingerprint, statement, "success"),
+                DistributionSummary.builder(ROWS_METRIC)
+                        .description("Rows returned by SQL statements")
+                        .tag(FINGERPRINT_TAG, fingerprint)
+                        .tag("statement", statement)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String fingerprint, String statement, String outcome) {
+        return Timer.builder(QUERY_METRIC)
+                .description("Execution time of SQL statements")
+                .tag(FINGERPRINT_TAG, fingerprint)
+                .tag("statement", statement)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    static String normalize(String query) {
+        String normalized = WHITESPACE.matcher(query).replaceAll(" ").trim();
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        return NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+    }
+
+    private record QueryMeters(String fingerprint, String normalized, String statement, Timer succeeded,
+                               DistributionSummary rows) {
+    }
+}
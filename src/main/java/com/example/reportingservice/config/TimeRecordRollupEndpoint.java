@@ -0,0 +1,42 @@
+package com.example.reportingservice.config;
+
+import com.example.reportingservice.dto.RollupConsistencyReport;
+import com.example.reportingservice.service.TimeRecordRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the daily rollup: {@code GET /actuator/rollup} checks it against
+ * {@code time_record}, {@code POST /actuator/rollup} rebuilds it. Both accept optional
+ * ISO {@code from}/{@code to} days to limit the work to the matching partitions.
+ */
+@Component
+@Endpoint(id = "rollup")
+@RequiredArgsConstructor
+public class TimeRecordRollupEndpoint {
+
+    private final TimeRecordRollupService rollupService;
+
+    @ReadOperation
+    public Mono<RollupConsistencyReport> check(@Nullable String from, @Nullable String to) {
+        return rollupService.checkConsistency(parseDate(from), parseDate(to));
+    }
+
+    @WriteOperation
+    public Mono<Map<String, Long>> rebuild(@Nullable String from, @Nullable String to) {
+        return rollupService.rebuild(parseDate(from), parseDate(to))
+                .map(rebuiltRows -> Map.of("rebuiltRows", rebuiltRows));
+    }
+
+    private static LocalDate parseDate(String date) {
+        return date != null ? LocalDate.parse(date) : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.reportingservice.config;
+
+import com.example.reportingservice.controller.ReportArrowEncoder;
+import com.example.reportingservice.controller.ReportCsvEncoder;
+import com.example.reportingservice.controller.ReportNdjsonEncoder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Registers the report encoders for NDJSON, CSV and Arrow. Custom encoders limited to specific
+ * types are consulted before the default Jackson encoder, which keeps serving every other type.
+ */
+@Configuration
+public class WebFluxConfiguration implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new ReportNdjsonEncoder());
+        configurer.customCodecs().register(new ReportCsvEncoder());
+        configurer.customCodecs().register(new ReportArrowEncoder());
+    }
+}
@@ -0,0 +1,417 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.HoursJson;
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.Date;
+import org.apache.arrow.flatbuf.DateUnit;
+import org.apache.arrow.flatbuf.Decimal;
+import org.apache.arrow.flatbuf.Endianness;
+import org.apache.arrow.flatbuf.Field;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.Int;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.MetadataVersion;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.flatbuf.Schema;
+import org.apache.arrow.flatbuf.Type;
+import org.apache.arrow.flatbuf.Utf8;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes reports as an Arrow IPC stream ({@value ReportMediaTypes#ARROW_STREAM_VALUE}): a schema
+ * message, record batches of the flattened rows (see {@link ReportRows}) and the end-of-stream
+ * marker. Rows are collected into columns as reports arrive and sent as a record batch every
+ * {@value #BATCH_ROWS} rows, so memory stays bounded by one batch however large the report is.
+ * <p>
+ * Employee rows have the columns {@code employee} (utf8), {@code day} (date32), {@code project}
+ * (utf8) and {@code hours} (decimal128 with scale 2, the same value as in the JSON formats);
+ * project rows have no {@code project} column. Day, project and hours are null for an employee
+ * without hours in the range. Rows of keyed reports start with an {@code employee_id} or
+ * {@code project_id} column (int64).
+ */
+public class ReportArrowEncoder extends AbstractEncoder<Object> {
+
+    /** Rows per record batch; a single report with more rows makes a larger batch. */
+    static final int BATCH_ROWS = 4096;
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final int ALIGNMENT = 8;
+    private static final int HOURS_PRECISION = 20;
+    private static final int HOURS_SCALE = 2;
+    private static final int DECIMAL_BYTES = 16;
+
+    public ReportArrowEncoder() {
+        super(ReportMediaTypes.ARROW_STREAM);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return ReportRows.isReport(elementType) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> input, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        boolean employees = ReportRows.isEmployeeReport(elementType);
+        boolean keyed = ReportRows.isKeyed(elementType);
+        return Flux.defer(() -> {
+            RecordBatchBuilder batch = new RecordBatchBuilder(employees, keyed);
+            return Flux.concat(
+                    Mono.fromCallable(() -> bufferFactory.wrap(schemaMessage(employees, keyed))),
+                    Flux.from(input).concatMapIterable(report -> {
+                        batch.add(report);
+                        return batch.rows() >= BATCH_ROWS ? List.of(bufferFactory.wrap(batch.build())) : List.of();
+                    }),
+                    Flux.defer(() -> batch.rows() > 0
+                            ? Flux.just(bufferFactory.wrap(batch.build()), bufferFactory.wrap(endOfStream()))
+                            : Flux.just(bufferFactory.wrap(endOfStream()))));
+        });
+    }
+
+    private static ByteBuffer schemaMessage(boolean employees, boolean keyed) {
+        FlatBufferBuilder builder = new FlatBufferBuilder(512);
+        int[] fields = employees
+                ? new int[]{utf8Field(builder, "employee", false), dateField(builder), utf8Field(builder, "project", true), hoursField(builder)}
+                : new int[]{utf8Field(builder, "project", false), dateField(builder), hoursField(builder)};
+        if (keyed) {
+            int[] keyedFields = new int[fields.length + 1];
+            keyedFields[0] = idField(builder, employees ? "employee_id" : "project_id");
+            System.arraycopy(fields, 0, keyedFields, 1, fields.length);
+            fields = keyedFields;
+        }
+        int schema = Schema.createSchema(builder, Endianness.Little, Schema.createFieldsVector(builder, fields), 0, 0);
+        ByteBuffer message = message(builder, MessageHeader.Schema, schema, 0);
+        return message.flip();
+    }
+
+    private static int idField(FlatBufferBuilder builder, String name) {
+        return field(builder, name, false, Type.Int, Int.createInt(builder, 64, true));
+    }
+
+    private static int utf8Field(FlatBufferBuilder builder, String name, boolean nullable) {
+        Utf8.startUtf8(builder);
+        return field(builder, name, nullable, Type.Utf8, Utf8.endUtf8(builder));
+    }
+
+    private static int dateField(FlatBufferBuilder builder) {
+        return field(builder, "day", true, Type.Date, Date.createDate(builder, DateUnit.DAY));
+    }
+
+    private static int hoursField(FlatBufferBuilder builder) {
+        return field(builder, "hours", true, Type.Decimal, Decimal.createDecimal(builder, HOURS_PRECISION, HOURS_SCALE, DECIMAL_BYTES * 8));
+    }
+
+    private static int field(FlatBufferBuilder builder, String name, boolean nullable, byte typeType, int type) {
+        int nameOffset = builder.createString(name);
+        int children = Field.createChildrenVector(builder, new int[0]);
+        return Field.createField(builder, nameOffset, nullable, typeType, type, 0, children, 0);
+    }
+
+    /**
+     * An encapsulated message: continuation marker, metadata length, the flatbuffer padded to the
+     * alignment, with room left for {@code bodyLength} bytes of body after it.
+     */
+    private static ByteBuffer message(FlatBufferBuilder builder, byte headerType, int header, long bodyLength) {
+        int message = Message.createMessage(builder, MetadataVersion.V5, headerType, header, bodyLength, 0);
+        builder.finish(message);
+        ByteBuffer metadata = builder.dataBuffer();
+        int metadataLength = align(8 + metadata.remaining()) - 8;
+        ByteBuffer out = ByteBuffer.allocate(8 + metadataLength + Math.toIntExact(bodyLength)).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(CONTINUATION);
+        out.putInt(metadataLength);
+        out.put(metadata);
+        out.position(8 + metadataLength);
+        return out;
+    }
+
+    private static ByteBuffer endOfStream() {
+        return ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(CONTINUATION).putInt(0).flip();
+    }
+
+    private static int align(int length) {
+        return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Columns of the rows added since the last record batch.
+     */
+    private static final class RecordBatchBuilder {
+
+        private final boolean employees;
+        private final boolean keyed;
+        private int rows;
+        private LongColumn ids;
+        private Utf8Column names;
+        private DateColumn days;
+        private Utf8Column projects;
+        private DecimalColumn hours;
+
+        RecordBatchBuilder(boolean employees, boolean keyed) {
+            this.employees = employees;
+            this.keyed = keyed;
+            reset();
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        void add(Object report) {
+            ReportRows.forEach(report, (name, day, projectName, seconds) -> {
+                if (keyed) {
+                    ids.add(rows, ReportRows.id(report));
+                }
+                names.add(rows, name);
+                days.add(rows, day);
+                if (employees) {
+                    projects.add(rows, day != null ? projectName : null);
+                }
+                hours.add(rows, day != null, seconds);
+                rows++;
+            });
+        }
+
+        /**
+         * The record batch message of the rows added so far, ready to read; starts a new batch.
+         */
+        ByteBuffer build() {
+            List<Column> columns = new ArrayList<>(5);
+            if (keyed) {
+                columns.add(ids);
+            }
+            columns.addAll(employees ? List.of(names, days, projects, hours) : List.of(names, days, hours));
+            int bufferCount = 0;
+            long bodyLength = 0;
+            for (Column column : columns) {
+                for (int length : column.bufferLengths(rows)) {
+                    bufferCount++;
+                    bodyLength += align(length);
+                }
+            }
+
+            FlatBufferBuilder builder = new FlatBufferBuilder(256 + bufferCount * 16);
+            // Vectors of structs are built back to front
+            RecordBatch.startNodesVector(builder, columns.size());
+            for (int i = columns.size() - 1; i >= 0; i--) {
+                FieldNode.createFieldNode(builder, rows, columns.get(i).nullCount);
+            }
+            int nodes = builder.endVector();
+            long[] offsets = new long[bufferCount];
+            long[] lengths = new long[bufferCount];
+            int index = 0;
+            long offset = 0;
+            for (Column column : columns) {
+                for (int length : column.bufferLengths(rows)) {
+                    offsets[index] = offset;
+                    lengths[index++] = length;
+                    offset += align(length);
+                }
+            }
+            RecordBatch.startBuffersVector(builder, bufferCount);
+            for (int i = bufferCount - 1; i >= 0; i--) {
+                Buffer.createBuffer(builder, offsets[i], lengths[i]);
+            }
+            int buffers = builder.endVector();
+            int recordBatch = RecordBatch.createRecordBatch(builder, rows, nodes, buffers, 0, 0);
+
+            ByteBuffer out = message(builder, MessageHeader.RecordBatch, recordBatch, bodyLength);
+            for (Column column : columns) {
+                column.write(out, rows);
+            }
+            reset();
+            return out.flip();
+        }
+
+        private void reset() {
+            rows = 0;
+            ids = new LongColumn();
+            names = new Utf8Column();
+            days = new DateColumn();
+            projects = new Utf8Column();
+            hours = new DecimalColumn();
+        }
+    }
+
+    /**
+     * A column with its validity bitmap. Buffers are written in the order of
+     * {@link #bufferLengths(int)}, each padded to the alignment.
+     */
+    private abstract static class Column {
+
+        private byte[] validity = new byte[BATCH_ROWS / 8];
+        int nullCount;
+
+        void setValid(int row, boolean valid) {
+            if (row / 8 >= validity.length) {
+                validity = Arrays.copyOf(validity, validity.length * 2);
+            }
+            if (valid) {
+                validity[row / 8] |= (byte) (1 << (row % 8));
+            } else {
+                nullCount++;
+            }
+        }
+
+        abstract int[] bufferLengths(int rows);
+
+        abstract void write(ByteBuffer out, int rows);
+
+        void writeValidity(ByteBuffer out, int rows) {
+            out.put(validity, 0, (rows + 7) / 8);
+            pad(out);
+        }
+
+        static void pad(ByteBuffer out) {
+            out.position(align(out.position()));
+        }
+    }
+
+    private static final class Utf8Column extends Column {
+
+        private int[] offsets = new int[BATCH_ROWS + 1];
+        private byte[] data = new byte[BATCH_ROWS * 16];
+        private int dataLength;
+        // Consecutive rows of one report share the name instance, encode it once
+        private String last;
+        private byte[] lastBytes;
+
+        void add(int row, @Nullable String value) {
+            if (row + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            setValid(row, value != null);
+            if (value != null) {
+                byte[] bytes = value == last ? lastBytes : value.getBytes(StandardCharsets.UTF_8);
+                last = value;
+                lastBytes = bytes;
+                if (dataLength + bytes.length > data.length) {
+                    data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + bytes.length));
+                }
+                System.arraycopy(bytes, 0, data, dataLength, bytes.length);
+                dataLength += bytes.length;
+            }
+            offsets[row + 1] = dataLength;
+        }
+
+        @Override
+        int[] bufferLengths(int rows) {
+            return new int[]{(rows + 7) / 8, (rows + 1) * 4, dataLength};
+        }
+
+        @Override
+        void write(ByteBuffer out, int rows) {
+            writeValidity(out, rows);
+            for (int i = 0; i <= rows; i++) {
+                out.putInt(offsets[i]);
+            }
+            pad(out);
+            out.put(data, 0, dataLength);
+            pad(out);
+        }
+    }
+
+    private static final class DateColumn extends Column {
+
+        private int[] epochDays = new int[BATCH_ROWS];
+
+        void add(int row, @Nullable LocalDate day) {
+            if (row >= epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, epochDays.length * 2);
+            }
+            setValid(row, day != null);
+            epochDays[row] = day != null ? Math.toIntExact(day.toEpochDay()) : 0;
+        }
+
+        @Override
+        int[] bufferLengths(int rows) {
+            return new int[]{(rows + 7) / 8, rows * 4};
+        }
+
+        @Override
+        void write(ByteBuffer out, int rows) {
+            writeValidity(out, rows);
+            for (int i = 0; i < rows; i++) {
+                out.putInt(epochDays[i]);
+            }
+            pad(out);
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private long[] values = new long[BATCH_ROWS];
+
+        void add(int row, long value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            setValid(row, true);
+            values[row] = value;
+        }
+
+        @Override
+        int[] bufferLengths(int rows) {
+            return new int[]{(rows + 7) / 8, rows * 8};
+        }
+
+        @Override
+        void write(ByteBuffer out, int rows) {
+            writeValidity(out, rows);
+            for (int i = 0; i < rows; i++) {
+                out.putLong(values[i]);
+            }
+            pad(out);
+        }
+    }
+
+    /**
+     * Hours as hundredths, the unscaled value of a decimal with scale 2.
+     */
+    private static final class DecimalColumn extends Column {
+
+        private long[] hundredths = new long[BATCH_ROWS];
+
+        void add(int row, boolean valid, long seconds) {
+            if (row >= hundredths.length) {
+                hundredths = Arrays.copyOf(hundredths, hundredths.length * 2);
+            }
+            setValid(row, valid);
+            hundredths[row] = valid ? HoursJson.hundredths(seconds) : 0;
+        }
+
+        @Override
+        int[] bufferLengths(int rows) {
+            return new int[]{(rows + 7) / 8, rows * DECIMAL_BYTES};
+        }
+
+        @Override
+        void write(ByteBuffer out, int rows) {
+            writeValidity(out, rows);
+            for (int i = 0; i < rows; i++) {
+                // 128-bit two's complement, little endian
+                out.putLong(hundredths[i]);
+                out.putLong(hundredths[i] < 0 ? -1L : 0L);
+            }
+            pad(out);
+        }
+    }
+}
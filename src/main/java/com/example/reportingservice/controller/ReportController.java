@@ -1,30 +1,49 @@
 package com.example.reportingservice.controller;
 
 import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.KeyedProjectReport;
 import com.example.reportingservice.dto.ProjectReport;
 import com.example.reportingservice.exception.InvalidDateRangeException;
+import com.example.reportingservice.exception.InvalidReportParameterException;
+import com.example.reportingservice.service.ReportChanges;
+import com.example.reportingservice.service.ReportPage;
 import com.example.reportingservice.service.ReportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 
+/**
+ * Report endpoints. Every report is available as NDJSON (the default), as CSV and as an Arrow IPC
+ * stream, chosen by {@code Accept}; see {@link ReportMediaTypes}.
+ */
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
 @Slf4j
 public class ReportController {
 
+    static final int MAX_CHUNK_SIZE = 10_000;
+    static final int MAX_PAGE_SIZE = 1_000;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String WATERMARK_HEADER = "X-Watermark";
+
+    private static final String EMPLOYEES = "employees";
+    private static final String PROJECTS = "projects";
+
     private final ReportService reportService;
 
-    @GetMapping(value = "/report/employees", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @GetMapping(value = "/report/employees", produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
     public Flux<EmployeeReport> streamEmployeesReport(
             @RequestParam(required = false) 
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
@@ -39,7 +58,7 @@ public class ReportController {
         return reportService.streamEmployeesReport(startDate, endDate);
     }
     
-    @GetMapping(value = "/report/projects", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @GetMapping(value = "/report/projects", produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
     public Flux<ProjectReport> streamProjectsReport(
             @RequestParam(required = false) 
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
@@ -54,9 +73,196 @@ public class ReportController {
         return reportService.streamProjectsReport(startDate, endDate);
     }
 
+    /**
+     * Same report, but each employee is split into consecutive lines of at most {@code chunkSize}
+     * entries of {@code hoursSpent} (one per day and project), each carrying the employee's id.
+     */
+    @GetMapping(value = "/report/employees", params = {"chunkSize", "!limit", "!since"}, produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
+    public Flux<KeyedEmployeeReport> streamEmployeesReportChunks(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @RequestParam int chunkSize) {
+
+        log.info("Streaming employees report with startDate: {}, endDate: {}, chunkSize: {}", startDate, endDate, chunkSize);
+        validateDates(startDate, endDate);
+        validateChunkSize(chunkSize);
+        return reportService.streamEmployeesReportChunks(startDate, endDate, chunkSize);
+    }
+
+    /**
+     * Same report, but each project is split into consecutive lines of at most {@code chunkSize} days,
+     * each carrying the project's id.
+     */
+    @GetMapping(value = "/report/projects", params = {"chunkSize", "!limit", "!since"}, produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
+    public Flux<KeyedProjectReport> streamProjectsReportChunks(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @RequestParam int chunkSize) {
+
+        log.info("Streaming projects report with startDate: {}, endDate: {}, chunkSize: {}", startDate, endDate, chunkSize);
+        validateDates(startDate, endDate);
+        validateChunkSize(chunkSize);
+        return reportService.streamProjectsReportChunks(startDate, endDate, chunkSize);
+    }
+
+    /**
+     * One keyset page of at most {@code limit} employees. When more follow, the response carries
+     * an {@value #NEXT_CURSOR_HEADER} header to pass as {@code cursor} for the next page.
+     */
+    @GetMapping(value = "/report/employees", params = {"limit", "!since"}, produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<EmployeeReport>>> pageEmployeesReport(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(required = false) Integer chunkSize) {
+
+        log.info("Streaming employees report with startDate: {}, endDate: {}, cursor: {}, limit: {}", startDate, endDate, cursor, limit);
+        validateDates(startDate, endDate);
+        validateLimit(limit);
+        validatePageOnly(chunkSize);
+        Long afterId = ReportCursor.decode(EMPLOYEES, cursor);
+        return reportService.pageEmployeesReport(startDate, endDate, afterId, limit)
+                .map(page -> toResponse(page, EMPLOYEES));
+    }
+
+    /**
+     * One keyset page of at most {@code limit} projects, see {@link #pageEmployeesReport}.
+     */
+    @GetMapping(value = "/report/projects", params = {"limit", "!since"}, produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<ProjectReport>>> pageProjectsReport(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(required = false) Integer chunkSize) {
+
+        log.info("Streaming projects report with startDate: {}, endDate: {}, cursor: {}, limit: {}", startDate, endDate, cursor, limit);
+        validateDates(startDate, endDate);
+        validateLimit(limit);
+        validatePageOnly(chunkSize);
+        Long afterId = ReportCursor.decode(PROJECTS, cursor);
+        return reportService.pageProjectsReport(startDate, endDate, afterId, limit)
+                .map(page -> toResponse(page, PROJECTS));
+    }
+
+    /**
+     * Only the employees' hours per project and day that changed since the watermark {@code since};
+     * hours deleted since come back as zero. Each line carries the employee's id, since names are
+     * not unique. The response carries an {@value #WATERMARK_HEADER} header to pass as
+     * {@code since} next time. An empty {@code since} returns every employee's hours, to start from.
+     */
+    @GetMapping(value = "/report/employees", params = "since", produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<KeyedEmployeeReport>>> employeesReportChanges(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @RequestParam String since,
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestParam(required = false) Integer limit) {
+
+        log.info("Streaming employees report with startDate: {}, endDate: {}, since: {}", startDate, endDate, since);
+        validateDates(startDate, endDate);
+        validateChangesOnly(chunkSize, limit);
+        return reportService.employeesReportChanges(startDate, endDate, ReportWatermark.decode(since))
+                .map(ReportController::toResponse);
+    }
+
+    /**
+     * Only the projects' hours per day that changed since the watermark {@code since}, see
+     * {@link #employeesReportChanges}.
+     */
+    @GetMapping(value = "/report/projects", params = "since", produces = {MediaType.APPLICATION_NDJSON_VALUE, ReportMediaTypes.TEXT_CSV_VALUE, ReportMediaTypes.ARROW_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<KeyedProjectReport>>> projectsReportChanges(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate startDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate endDate,
+
+            @RequestParam String since,
+            @RequestParam(required = false) Integer chunkSize,
+            @RequestParam(required = false) Integer limit) {
+
+        log.info("Streaming projects report with startDate: {}, endDate: {}, since: {}", startDate, endDate, since);
+        validateDates(startDate, endDate);
+        validateChangesOnly(chunkSize, limit);
+        return reportService.projectsReportChanges(startDate, endDate, ReportWatermark.decode(since))
+                .map(ReportController::toResponse);
+    }
+
+    private static <T> ResponseEntity<Flux<T>> toResponse(ReportChanges<T> changes) {
+        return ResponseEntity.ok()
+                .header(WATERMARK_HEADER, ReportWatermark.encode(changes.getWatermark()))
+                .body(changes.getReports());
+    }
+
+    private static <T> ResponseEntity<Flux<T>> toResponse(ReportPage<T> page, String report) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextAfterId() != null) {
+            response.header(NEXT_CURSOR_HEADER, ReportCursor.encode(report, page.getNextAfterId()));
+        }
+        return response.body(page.getReports());
+    }
+
     private void validateDates(LocalDate startDate, LocalDate endDate) {
         if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
             throw new InvalidDateRangeException("End date cannot be before start date.");
         }
     }
+
+    private void validateChunkSize(int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new InvalidReportParameterException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + ".");
+        }
+    }
+
+    private void validateChangesOnly(Integer chunkSize, Integer limit) {
+        if (chunkSize != null || limit != null) {
+            throw new InvalidReportParameterException("Changes since a watermark cannot be chunked or paged.");
+        }
+    }
+
+    private void validatePageOnly(Integer chunkSize) {
+        if (chunkSize != null) {
+            throw new InvalidReportParameterException("Pages cannot be chunked.");
+        }
+    }
+
+    private void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidReportParameterException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
 }
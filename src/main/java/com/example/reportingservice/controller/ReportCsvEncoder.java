@@ -0,0 +1,93 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.EmployeeReport;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Writes reports as {@code text/csv} (RFC 4180, CRLF line ends) with a header line and one line per
+ * flattened row, see {@link ReportRows}: {@code employee,day,project,hours} or {@code project,day,hours},
+ * preceded by an {@code employee_id} or {@code project_id} column for keyed reports.
+ * Hours have two decimals like in the JSON formats. Each report is written into its own buffer as it
+ * arrives, so the response streams like NDJSON.
+ */
+public class ReportCsvEncoder extends AbstractEncoder<Object> {
+
+    private static final byte[] EMPLOYEES_HEADER = ReportLineWriter.ascii("employee,day,project,hours\r\n");
+    private static final byte[] PROJECTS_HEADER = ReportLineWriter.ascii("project,day,hours\r\n");
+    private static final byte[] KEYED_EMPLOYEES_HEADER = ReportLineWriter.ascii("employee_id,employee,day,project,hours\r\n");
+    private static final byte[] KEYED_PROJECTS_HEADER = ReportLineWriter.ascii("project_id,project,day,hours\r\n");
+
+    /** Initial buffer size per row; buffers grow when names are longer. */
+    private static final int ROW_CAPACITY = 48;
+
+    public ReportCsvEncoder() {
+        super(ReportMediaTypes.TEXT_CSV);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return ReportRows.isReport(elementType) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> input, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        byte[] header = ReportRows.isKeyed(elementType)
+                ? ReportRows.isEmployeeReport(elementType) ? KEYED_EMPLOYEES_HEADER : KEYED_PROJECTS_HEADER
+                : ReportRows.isEmployeeReport(elementType) ? EMPLOYEES_HEADER : PROJECTS_HEADER;
+        return Flux.concat(
+                Mono.fromCallable(() -> bufferFactory.wrap(header)),
+                Flux.from(input).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        if (!ReportRows.isReport(ResolvableType.forInstance(value))) {
+            throw new EncodingException("Unsupported report type: " + value.getClass().getName());
+        }
+        boolean employees = value instanceof EmployeeReport;
+        boolean keyed = ReportRows.isKeyed(ResolvableType.forInstance(value));
+        DataBuffer buffer = bufferFactory.allocateBuffer(ReportRows.count(value) * ROW_CAPACITY);
+        try {
+            ReportLineWriter line = new ReportLineWriter(buffer);
+            ReportRows.forEach(value, (name, day, projectName, seconds) -> {
+                if (keyed) {
+                    line.writeLong(ReportRows.id(value));
+                    line.write(',');
+                }
+                line.writeCsvField(name);
+                line.write(',');
+                if (day != null) {
+                    line.writeIsoDate(day);
+                }
+                line.write(',');
+                if (employees) {
+                    line.writeCsvField(projectName);
+                    line.write(',');
+                }
+                if (day != null) {
+                    line.writeHours(seconds);
+                }
+                line.write('\r');
+                line.write('\n');
+            });
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+}
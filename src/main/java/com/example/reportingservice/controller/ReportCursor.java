@@ -0,0 +1,39 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.exception.InvalidReportParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor of the paginated report endpoints: the report it belongs to and the last
+ * employee or project id of the previous page, base64url encoded.
+ */
+final class ReportCursor {
+
+    private ReportCursor() {
+    }
+
+    static String encode(String report, long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((report + ":" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The id to continue after, or {@code null} for the first page.
+     */
+    static Long decode(String report, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(report + ":")) {
+                return Long.parseLong(value.substring(report.length() + 1));
+            }
+        } catch (IllegalArgumentException e) {
+            // not base64 or not a number, rejected below
+        }
+        throw new InvalidReportParameterException("Invalid cursor.");
+    }
+}
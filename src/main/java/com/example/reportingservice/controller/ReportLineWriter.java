@@ -0,0 +1,227 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.HoursJson;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Writes the values of one report line as UTF-8 into its buffer. Strings, numbers and dates are
+ * formatted in a scratch array so each is copied with as few buffer writes as possible.
+ */
+final class ReportLineWriter {
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX_DIGITS = ascii("0123456789ABCDEF");
+
+    /** Strings are encoded into the scratch array and copied whenever it cannot take another character. */
+    private static final int SCRATCH_SIZE = 128;
+    private static final int MAX_CHAR_BYTES = 8;
+
+    private final DataBuffer buffer;
+    private final byte[] scratch = new byte[SCRATCH_SIZE];
+    private final char[] chars = new char[24];
+
+    ReportLineWriter(DataBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    void write(byte[] bytes) {
+        buffer.write(bytes);
+    }
+
+    void write(char c) {
+        buffer.write((byte) c);
+    }
+
+    /**
+     * A quoted JSON string with the escapes Jackson writes by default: quote, backslash and control
+     * characters, and each surrogate as its own unicode escape.
+     */
+    void writeJsonString(@Nullable String value) {
+        if (value == null) {
+            buffer.write(NULL);
+            return;
+        }
+        int length = put('"', 0);
+        for (int i = 0; i < value.length(); i++) {
+            length = ensureRoom(length);
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                length = putJsonEscape(c, length);
+            } else if (Character.isSurrogate(c)) {
+                length = putUnicodeEscape(c, length);
+            } else {
+                length = putUtf8(c, length);
+            }
+        }
+        length = put('"', length);
+        buffer.write(scratch, 0, length);
+    }
+
+    /**
+     * A CSV field as in RFC 4180: quoted, with quotes doubled, only when it contains a separator,
+     * quote or line break. {@code null} is an empty field. Surrogate pairs are encoded as one
+     * four-byte character.
+     */
+    void writeCsvField(@Nullable String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quoted = needsCsvQuotes(value);
+        int length = quoted ? put('"', 0) : 0;
+        for (int i = 0; i < value.length(); i++) {
+            length = ensureRoom(length);
+            char c = value.charAt(i);
+            if (c == '"') {
+                length = put('"', put('"', length));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length = putCodePoint(Character.toCodePoint(c, value.charAt(++i)), length);
+            } else {
+                length = putUtf8(c, length);
+            }
+        }
+        if (quoted) {
+            length = put('"', length);
+        }
+        buffer.write(scratch, 0, length);
+    }
+
+    private static boolean needsCsvQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A quoted ISO date or {@code null}, like Jackson's {@code LocalDateSerializer} without timestamps.
+     */
+    void writeJsonDate(@Nullable LocalDate day) {
+        if (day == null) {
+            buffer.write(NULL);
+            return;
+        }
+        write('"');
+        writeIsoDate(day);
+        write('"');
+    }
+
+    void writeIsoDate(LocalDate day) {
+        int year = day.getYear();
+        if (year < 0 || year > 9999) {
+            buffer.write(ascii(day.toString()));
+            return;
+        }
+        scratch[0] = digit(year / 1000);
+        scratch[1] = digit(year / 100 % 10);
+        scratch[2] = digit(year / 10 % 10);
+        scratch[3] = digit(year % 10);
+        scratch[4] = '-';
+        scratch[5] = digit(day.getMonthValue() / 10);
+        scratch[6] = digit(day.getMonthValue() % 10);
+        scratch[7] = '-';
+        scratch[8] = digit(day.getDayOfMonth() / 10);
+        scratch[9] = digit(day.getDayOfMonth() % 10);
+        buffer.write(scratch, 0, 10);
+    }
+
+    void writeLong(long value) {
+        String digits = Long.toString(value);
+        for (int i = 0; i < digits.length(); i++) {
+            scratch[i] = (byte) digits.charAt(i);
+        }
+        buffer.write(scratch, 0, digits.length());
+    }
+
+    /**
+     * Hours with two decimals, see {@link HoursJson}.
+     */
+    void writeHours(long seconds) {
+        int offset = HoursJson.format(HoursJson.hundredths(seconds), chars);
+        int length = chars.length - offset;
+        for (int i = 0; i < length; i++) {
+            scratch[i] = (byte) chars[offset + i];
+        }
+        buffer.write(scratch, 0, length);
+    }
+
+    private int ensureRoom(int length) {
+        if (length > scratch.length - MAX_CHAR_BYTES) {
+            buffer.write(scratch, 0, length);
+            return 0;
+        }
+        return length;
+    }
+
+    private int putJsonEscape(char c, int length) {
+        char escaped = switch (c) {
+            case '"', '\\' -> c;
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            default -> 0;
+        };
+        if (escaped == 0) {
+            return putUnicodeEscape(c, length);
+        }
+        return put(escaped, put('\\', length));
+    }
+
+    private int putUnicodeEscape(char c, int length) {
+        length = put('u', put('\\', length));
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            scratch[length++] = HEX_DIGITS[c >> shift & 0xF];
+        }
+        return length;
+    }
+
+    /**
+     * A character of the basic multilingual plane; a lone surrogate is written as {@code ?}.
+     */
+    private int putUtf8(char c, int length) {
+        if (c < 0x80) {
+            return put(c, length);
+        }
+        if (c < 0x800) {
+            scratch[length++] = (byte) (0xC0 | c >> 6);
+            scratch[length++] = (byte) (0x80 | c & 0x3F);
+            return length;
+        }
+        if (Character.isSurrogate(c)) {
+            return put('?', length);
+        }
+        scratch[length++] = (byte) (0xE0 | c >> 12);
+        scratch[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+        scratch[length++] = (byte) (0x80 | c & 0x3F);
+        return length;
+    }
+
+    private int putCodePoint(int codePoint, int length) {
+        scratch[length++] = (byte) (0xF0 | codePoint >> 18);
+        scratch[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        scratch[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+        return length;
+    }
+
+    private int put(char c, int length) {
+        scratch[length] = (byte) c;
+        return length + 1;
+    }
+
+    private static byte digit(int value) {
+        return (byte) ('0' + value);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.reportingservice.controller;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Media types the report endpoints negotiate on {@code Accept} besides {@code application/x-ndjson}.
+ */
+public final class ReportMediaTypes {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /** The Arrow IPC streaming format. */
+    public static final String ARROW_STREAM_VALUE = "application/vnd.apache.arrow.stream";
+    public static final MediaType ARROW_STREAM = MediaType.parseMediaType(ARROW_STREAM_VALUE);
+
+    private ReportMediaTypes() {
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.KeyedProjectReport;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.dto.ProjectReport;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link EmployeeReport} and {@link ProjectReport} lines of {@code application/x-ndjson}
+ * field by field as UTF-8 straight into the response's pooled buffers, one buffer per line,
+ * with the same bytes the Jackson encoder produces for these types. {@link KeyedEmployeeReport} and
+ * {@link KeyedProjectReport} lines start with their {@code id}.
+ * <p>
+ * Unlike the Jackson encoder it does not declare NDJSON a streaming media type, so WebFlux hands
+ * the lines to Reactor Netty without a flush after each one. Netty then flushes once per batch of
+ * lines that are ready, while a line that arrives alone is still flushed right away.
+ */
+public class ReportNdjsonEncoder extends AbstractEncoder<Object> {
+
+    private static final byte[] ID = ReportLineWriter.ascii("{\"id\":");
+    private static final byte[] ID_NAME = ReportLineWriter.ascii(",\"name\":");
+    private static final byte[] NAME = ReportLineWriter.ascii("{\"name\":");
+    private static final byte[] HOURS_SPENT = ReportLineWriter.ascii(",\"hoursSpent\":");
+    private static final byte[] DAY = ReportLineWriter.ascii("{\"day\":");
+    private static final byte[] PROJECT_NAME = ReportLineWriter.ascii(",\"projectName\":");
+    private static final byte[] TOTAL_HOURS = ReportLineWriter.ascii(",\"totalHours\":");
+    private static final byte[] NULL = ReportLineWriter.ascii("null");
+
+    /** Initial buffer size of a line and of each day in it; buffers grow when names are longer. */
+    private static final int LINE_CAPACITY = 64;
+    private static final int DAY_CAPACITY = 64;
+
+    public ReportNdjsonEncoder() {
+        super(MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+        return ReportRows.isReport(elementType) && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> input, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        return Flux.from(input).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        if (!(value instanceof EmployeeReport) && !(value instanceof ProjectReport)) {
+            throw new EncodingException("Unsupported report type: " + value.getClass().getName());
+        }
+        DataBuffer buffer = bufferFactory.allocateBuffer(capacity(value));
+        try {
+            ReportLineWriter line = new ReportLineWriter(buffer);
+            if (value instanceof EmployeeReport report) {
+                writeEmployeeReport(report, line);
+            } else {
+                writeProjectReport((ProjectReport) value, line);
+            }
+            return buffer;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+    }
+
+    private static int capacity(Object report) {
+        List<?> hoursSpent = report instanceof EmployeeReport employeeReport
+                ? employeeReport.getHoursSpent()
+                : ((ProjectReport) report).getHoursSpent();
+        return LINE_CAPACITY + (hoursSpent != null ? hoursSpent.size() * DAY_CAPACITY : 0);
+    }
+
+    private static void writeEmployeeReport(EmployeeReport report, ReportLineWriter line) {
+        writeName(report, report.getName(), line);
+        line.write(HOURS_SPENT);
+        List<DailyHours> hoursSpent = report.getHoursSpent();
+        if (hoursSpent == null) {
+            line.write(NULL);
+        } else {
+            line.write('[');
+            for (int i = 0; i < hoursSpent.size(); i++) {
+                DailyHours hours = hoursSpent.get(i);
+                if (i > 0) {
+                    line.write(',');
+                }
+                line.write(DAY);
+                line.writeJsonDate(hours.getDay());
+                line.write(PROJECT_NAME);
+                line.writeJsonString(hours.getProjectName());
+                line.write(TOTAL_HOURS);
+                line.writeHours(hours.getTotalSeconds());
+                line.write('}');
+            }
+            line.write(']');
+        }
+        line.write('}');
+        line.write('\n');
+    }
+
+    private static void writeProjectReport(ProjectReport report, ReportLineWriter line) {
+        writeName(report, report.getName(), line);
+        line.write(HOURS_SPENT);
+        List<ProjectDailyHours> hoursSpent = report.getHoursSpent();
+        if (hoursSpent == null) {
+            line.write(NULL);
+        } else {
+            line.write('[');
+            for (int i = 0; i < hoursSpent.size(); i++) {
+                ProjectDailyHours hours = hoursSpent.get(i);
+                if (i > 0) {
+                    line.write(',');
+                }
+                line.write(DAY);
+                line.writeJsonDate(hours.getDay());
+                line.write(TOTAL_HOURS);
+                line.writeHours(hours.getTotalSeconds());
+                line.write('}');
+            }
+            line.write(']');
+        }
+        line.write('}');
+        line.write('\n');
+    }
+
+    /**
+     * The line up to and including the name, with the id first for keyed reports.
+     */
+    private static void writeName(Object report, String name, ReportLineWriter line) {
+        if (report instanceof KeyedEmployeeReport || report instanceof KeyedProjectReport) {
+            line.write(ID);
+            line.writeLong(ReportRows.id(report));
+            line.write(ID_NAME);
+        } else {
+            line.write(NAME);
+        }
+        line.writeJsonString(name);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.KeyedProjectReport;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.dto.ProjectReport;
+import org.springframework.core.ResolvableType;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Flattens reports into the row-oriented formats' tuples: one row per employee, day and project
+ * or per project and day. An employee without hours in the range is a single row with only its name.
+ * Rows of keyed reports also carry the employee or project id.
+ */
+final class ReportRows {
+
+    interface RowConsumer {
+
+        /**
+         * @param day         {@code null} for an employee without hours, then project and seconds are absent too
+         * @param projectName always {@code null} in project reports
+         */
+        void row(String name, @Nullable LocalDate day, @Nullable String projectName, long seconds);
+    }
+
+    private ReportRows() {
+    }
+
+    static boolean isReport(ResolvableType type) {
+        Class<?> reportType = type.toClass();
+        return EmployeeReport.class.isAssignableFrom(reportType) || ProjectReport.class.isAssignableFrom(reportType);
+    }
+
+    static boolean isEmployeeReport(ResolvableType type) {
+        return EmployeeReport.class.isAssignableFrom(type.toClass());
+    }
+
+    /**
+     * Whether the reports carry their employee or project id, see {@link KeyedEmployeeReport}.
+     */
+    static boolean isKeyed(ResolvableType type) {
+        Class<?> reportType = type.toClass();
+        return KeyedEmployeeReport.class.isAssignableFrom(reportType) || KeyedProjectReport.class.isAssignableFrom(reportType);
+    }
+
+    /**
+     * The employee or project id of a keyed report.
+     */
+    static long id(Object report) {
+        return report instanceof KeyedEmployeeReport employeeReport
+                ? employeeReport.getId()
+                : ((KeyedProjectReport) report).getId();
+    }
+
+    /**
+     * Number of rows the report flattens to.
+     */
+    static int count(Object report) {
+        List<?> hoursSpent = report instanceof EmployeeReport employeeReport
+                ? employeeReport.getHoursSpent()
+                : ((ProjectReport) report).getHoursSpent();
+        return hoursSpent == null || hoursSpent.isEmpty() ? 1 : hoursSpent.size();
+    }
+
+    static void forEach(Object report, RowConsumer consumer) {
+        if (report instanceof EmployeeReport employeeReport) {
+            List<DailyHours> hoursSpent = employeeReport.getHoursSpent();
+            if (hoursSpent == null || hoursSpent.isEmpty()) {
+                consumer.row(employeeReport.getName(), null, null, 0);
+                return;
+            }
+            for (DailyHours hours : hoursSpent) {
+                consumer.row(employeeReport.getName(), hours.getDay(), hours.getProjectName(), hours.getTotalSeconds());
+            }
+        } else {
+            ProjectReport projectReport = (ProjectReport) report;
+            List<ProjectDailyHours> hoursSpent = projectReport.getHoursSpent();
+            if (hoursSpent == null || hoursSpent.isEmpty()) {
+                consumer.row(projectReport.getName(), null, null, 0);
+                return;
+            }
+            for (ProjectDailyHours hours : hoursSpent) {
+                consumer.row(projectReport.getName(), hours.getDay(), null, hours.getTotalSeconds());
+            }
+        }
+    }
+}
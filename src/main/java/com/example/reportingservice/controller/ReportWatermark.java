@@ -0,0 +1,44 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.exception.InvalidReportParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque watermark of the changed-since report endpoints: a transaction id, base64url encoded.
+ * The same watermark works for both reports.
+ */
+final class ReportWatermark {
+
+    private static final String PREFIX = "since:";
+
+    private ReportWatermark() {
+    }
+
+    static String encode(long watermark) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + watermark).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The transaction id to report changes from, {@code 0} (every aggregate) for an empty watermark.
+     */
+    static long decode(String watermark) {
+        if (watermark.isEmpty()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+            if (value.startsWith(PREFIX)) {
+                long since = Long.parseLong(value.substring(PREFIX.length()));
+                if (since >= 0) {
+                    return since;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // not base64 or not a number, rejected below
+        }
+        throw new InvalidReportParameterException("Invalid watermark.");
+    }
+}
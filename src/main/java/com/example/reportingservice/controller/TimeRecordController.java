@@ -0,0 +1,45 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.dto.IngestionResult;
+import com.example.reportingservice.exception.InvalidTimeRecordException;
+import com.example.reportingservice.model.TimeRecord;
+import com.example.reportingservice.service.TimeRecordIngestionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Slf4j
+public class TimeRecordController {
+
+    private final TimeRecordIngestionService ingestionService;
+    private final ReportingProperties properties;
+
+    /**
+     * Upserts the NDJSON stream of time records on their ids, in batches of {@code batchSize}.
+     * Batches are committed as they are written, so a failure leaves earlier batches in place.
+     */
+    @PostMapping(value = "/time-records", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<IngestionResult> ingestTimeRecords(
+            @RequestBody Flux<TimeRecord> records,
+            @RequestParam(required = false) Integer batchSize) {
+
+        ReportingProperties.Ingestion ingestion = properties.getIngestion();
+        int size = batchSize != null ? batchSize : ingestion.getBatchSize();
+        log.info("Ingesting time records in batches of {}", size);
+        if (size < 1 || size > ingestion.getMaxBatchSize()) {
+            throw new InvalidTimeRecordException("Batch size must be between 1 and " + ingestion.getMaxBatchSize() + ".");
+        }
+        return ingestionService.ingest(records, size);
+    }
+}
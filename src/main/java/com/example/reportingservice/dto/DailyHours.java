@@ -1,26 +1,24 @@
 package com.example.reportingservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
 public class DailyHours {
     private LocalDate day;
     private String projectName;
-    private BigDecimal totalHours;
-    
-    public DailyHours(LocalDate day, String projectName, BigDecimal totalHours) {
-        this.day = day;
-        this.projectName = projectName;
-        this.totalHours = totalHours != null ? totalHours.setScale(2, RoundingMode.HALF_UP) : null;
-    }
-    
-    public void setTotalHours(BigDecimal totalHours) {
-        this.totalHours = totalHours != null ? totalHours.setScale(2, RoundingMode.HALF_UP) : null;
-    }
+
+    /** Rendered as {@code totalHours} with two decimals, see {@link HoursJson}. */
+    @JsonProperty("totalHours")
+    @JsonSerialize(using = HoursJson.Serializer.class)
+    @JsonDeserialize(using = HoursJson.Deserializer.class)
+    private long totalSeconds;
 }
@@ -0,0 +1,88 @@
+package com.example.reportingservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * JSON form of durations the report pipeline carries as whole seconds: hours with exactly two
+ * decimals, rounded half up, e.g. {@code 32100} seconds as {@code 8.92}.
+ * <p>
+ * The serializer formats with integer arithmetic into a per-thread buffer instead of building a
+ * {@link BigDecimal} and its string for every value. Reading converts the rounded hours back to
+ * seconds, which render the same again.
+ */
+public final class HoursJson {
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    /** Large enough for the sign, integer digits, point and decimals of any long of seconds. */
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[24]);
+
+    private HoursJson() {
+    }
+
+    /**
+     * Hundredths of an hour in {@code seconds}, rounded half up (away from zero).
+     */
+    public static long hundredths(long seconds) {
+        long rounded = (Math.abs(seconds) * 100 + SECONDS_PER_HOUR / 2) / SECONDS_PER_HOUR;
+        return seconds < 0 ? -rounded : rounded;
+    }
+
+    /**
+     * Writes {@code hundredths} as a decimal with two fraction digits into the end of {@code buffer}
+     * and returns the offset of the first character.
+     */
+    public static int format(long hundredths, char[] buffer) {
+        long value = Math.abs(hundredths);
+        int position = buffer.length;
+        buffer[--position] = (char) ('0' + value % 10);
+        value /= 10;
+        buffer[--position] = (char) ('0' + value % 10);
+        value /= 10;
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        if (hundredths < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    public static class Serializer extends StdSerializer<Long> {
+
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long seconds, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            char[] buffer = BUFFER.get();
+            int offset = format(hundredths(seconds), buffer);
+            generator.writeNumber(buffer, offset, buffer.length - offset);
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<Long> {
+
+        public Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            BigDecimal hours = parser.getDecimalValue();
+            return hours.multiply(BigDecimal.valueOf(SECONDS_PER_HOUR)).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.reportingservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Summary of one bulk time record ingestion request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionResult {
+    private long records;
+    private int batches;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+    private double averageBatchMillis;
+    private double maxBatchMillis;
+}
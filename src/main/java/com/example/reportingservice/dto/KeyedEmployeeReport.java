@@ -0,0 +1,27 @@
+package com.example.reportingservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * An {@link EmployeeReport} line that also carries the employee's id, for responses whose lines a
+ * client joins or replaces per employee: names are not unique.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+@JsonPropertyOrder({"id", "name", "hoursSpent"})
+public class KeyedEmployeeReport extends EmployeeReport {
+    private long id;
+
+    public KeyedEmployeeReport(long id, String name, List<DailyHours> hoursSpent) {
+        super(name, hoursSpent);
+        this.id = id;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.reportingservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * A {@link ProjectReport} line that also carries the project's id, for responses whose lines a
+ * client joins or replaces per project: names are not unique.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+@JsonPropertyOrder({"id", "name", "hoursSpent"})
+public class KeyedProjectReport extends ProjectReport {
+    private long id;
+
+    public KeyedProjectReport(long id, String name, List<ProjectDailyHours> hoursSpent) {
+        super(name, hoursSpent);
+        this.id = id;
+    }
+}
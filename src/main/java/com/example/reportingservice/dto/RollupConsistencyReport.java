@@ -0,0 +1,15 @@
+package com.example.reportingservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupConsistencyReport {
+    private boolean consistent;
+    private List<RollupDrift> drift;
+}
@@ -0,0 +1,25 @@
+package com.example.reportingservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A {@code time_record_daily} row that does not match the aggregate of the raw time records.
+ * {@code null} expected values mean the rollup has a row without records, {@code null} actual
+ * values mean the rollup row is missing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupDrift {
+    private Long employeeId;
+    private Long projectId;
+    private LocalDate day;
+    private Long expectedSeconds;
+    private Long actualSeconds;
+    private Integer expectedRecords;
+    private Integer actualRecords;
+}
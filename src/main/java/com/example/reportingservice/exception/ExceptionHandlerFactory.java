@@ -16,6 +16,17 @@ public class ExceptionHandlerFactory {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidReportParameterException.class)
+    public ResponseEntity<String> handleInvalidReportParameterException(InvalidReportParameterException ex) {
+        log.info("Invalid report parameter provided: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidTimeRecordException.class)
+    public ResponseEntity<String> handleInvalidTimeRecordException(InvalidTimeRecordException ex) {
+        log.info("Invalid time record ingestion request: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception ex) {
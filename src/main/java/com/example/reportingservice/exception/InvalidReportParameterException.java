@@ -0,0 +1,7 @@
+package com.example.reportingservice.exception;
+
+public class InvalidReportParameterException extends IllegalArgumentException {
+    public InvalidReportParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.reportingservice.exception;
+
+public class InvalidTimeRecordException extends IllegalArgumentException {
+    public InvalidTimeRecordException(String message) {
+        super(message);
+    }
+
+    public InvalidTimeRecordException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.reportingservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("user_employee")
+public class UserEmployee {
+    @Id
+    private String username;
+    private Long employeeId;
+}
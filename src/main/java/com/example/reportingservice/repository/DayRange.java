@@ -0,0 +1,14 @@
+package com.example.reportingservice.repository;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * First and last day with hours in the rollup; both {@code null} when there are none.
+ */
+@Value
+public class DayRange {
+    LocalDate first;
+    LocalDate last;
+}
@@ -0,0 +1,22 @@
+package com.example.reportingservice.repository;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One row of the set-based employees report query. Employees without time records
+ * in the requested range are returned as a single row with {@code null} day and project and no seconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeReportRow {
+    private Long employeeId;
+    private String employeeName;
+    private LocalDate day;
+    private String projectName;
+    private long totalSeconds;
+}
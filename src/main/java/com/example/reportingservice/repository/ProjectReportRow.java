@@ -4,14 +4,17 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
+/**
+ * One row of the set-based projects report query.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class EmployeeDailyHours {
-    private LocalDate day;
+public class ProjectReportRow {
+    private Long projectId;
     private String projectName;
-    private BigDecimal totalHours;
+    private LocalDate day;
+    private long totalSeconds;
 }
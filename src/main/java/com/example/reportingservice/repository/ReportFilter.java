@@ -0,0 +1,28 @@
+package com.example.reportingservice.repository;
+
+import lombok.Value;
+import lombok.With;
+
+import java.time.LocalDate;
+
+/**
+ * Filters of one report statement; {@code null} fields are not filtered on.
+ */
+@Value
+@With
+public class ReportFilter {
+    /** Only hours of this employee (and, for the employees report, only this employee). */
+    Long employeeId;
+    LocalDate startDate;
+    LocalDate endDate;
+    /** Keyset page: only employees or projects with an id greater than this ... */
+    Long afterId;
+    /** ... and up to and including this one. */
+    Long untilId;
+    /** Only aggregates changed at or after this watermark, see {@link ReportQueryBuilder#changedSince(Long)}. */
+    Long changedSince;
+
+    public static ReportFilter of(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        return new ReportFilter(employeeId, startDate, endDate, null, null, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.reportingservice.repository;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * A report statement built for one filter combination together with its named bind values.
+ */
+@Value
+public class ReportQuery {
+    String sql;
+    Map<String, Object> bindings;
+}
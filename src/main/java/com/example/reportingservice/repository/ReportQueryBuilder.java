@@ -0,0 +1,305 @@
+package com.example.reportingservice.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds report statements over the {@code time_record_daily} rollup that contain only the
+ * predicates for filters actually set. Avoiding {@code (:param IS NULL OR ...)} keeps every
+ * combination sargable, so Postgres can plan index scans on the rollup primary key and day index.
+ * <p>
+ * Keyset pages restrict the statement to an id range of employees or projects, which
+ * {@link #buildPageIds(int)} finds with an index range scan of the next page's ids.
+ * <p>
+ * A changed-since statement returns only the per-day aggregates whose records were written or
+ * deleted by a transaction at or after a watermark, found through the {@code time_record}
+ * modification index and the tombstones, with their current value from the rollup.
+ */
+public final class ReportQueryBuilder {
+
+    private enum Shape { EMPLOYEES, PROJECTS }
+
+    private static final String CHANGED = """
+            WITH changed AS (
+                SELECT employee_id, project_id, time_from::DATE AS day FROM time_record
+                WHERE modified_xid >= :changedSince::TEXT::XID8
+                UNION
+                SELECT employee_id, project_id, day FROM time_record_tombstone
+                WHERE deleted_xid >= :changedSince::TEXT::XID8
+            )
+            """;
+
+    private final Shape shape;
+    private Long employeeId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long afterId;
+    private Long untilId;
+    private Long changedSince;
+
+    private ReportQueryBuilder(Shape shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Rows of {@link EmployeeReportRow}: every employee (or the filtered one), ordered by employee id,
+     * with a single all-null row for employees without hours in the range.
+     */
+    public static ReportQueryBuilder employees() {
+        return new ReportQueryBuilder(Shape.EMPLOYEES);
+    }
+
+    /**
+     * Rows of {@link ProjectReportRow}: only projects with hours in the range, ordered by project id.
+     */
+    public static ReportQueryBuilder projects() {
+        return new ReportQueryBuilder(Shape.PROJECTS);
+    }
+
+    public ReportQueryBuilder filter(ReportFilter filter) {
+        return employeeId(filter.getEmployeeId())
+                .startDate(filter.getStartDate())
+                .endDate(filter.getEndDate())
+                .afterId(filter.getAfterId())
+                .untilId(filter.getUntilId())
+                .changedSince(filter.getChangedSince());
+    }
+
+    public ReportQueryBuilder employeeId(Long employeeId) {
+        this.employeeId = employeeId;
+        return this;
+    }
+
+    public ReportQueryBuilder startDate(LocalDate startDate) {
+        this.startDate = startDate;
+        return this;
+    }
+
+    public ReportQueryBuilder endDate(LocalDate endDate) {
+        this.endDate = endDate;
+        return this;
+    }
+
+    /**
+     * Only employees or projects with an id greater than this one.
+     */
+    public ReportQueryBuilder afterId(Long afterId) {
+        this.afterId = afterId;
+        return this;
+    }
+
+    /**
+     * Only employees or projects with an id up to and including this one.
+     */
+    public ReportQueryBuilder untilId(Long untilId) {
+        this.untilId = untilId;
+        return this;
+    }
+
+    /**
+     * Only aggregates changed by transactions with this id or a later one, see
+     * {@code ReportQueryRepository#findWatermark()}. Such statements read the live rollup only,
+     * for every employee or project changed, and ignore keyset pages.
+     */
+    public ReportQueryBuilder changedSince(Long changedSince) {
+        this.changedSince = changedSince;
+        return this;
+    }
+
+    public ReportQuery build() {
+        if (changedSince != null) {
+            return buildChanged();
+        }
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        List<String> dayPredicates = new ArrayList<>();
+        if (startDate != null) {
+            dayPredicates.add("d.day >= :startDate");
+            bindings.put("startDate", startDate);
+        }
+        if (endDate != null) {
+            dayPredicates.add("d.day <= :endDate");
+            bindings.put("endDate", endDate);
+        }
+        if (employeeId != null) {
+            bindings.put("employeeId", employeeId);
+        }
+        bindIdRange(bindings);
+        String sql = shape == Shape.EMPLOYEES ? employeesSql(dayPredicates) : projectsSql(dayPredicates);
+        return new ReportQuery(sql, bindings);
+    }
+
+    /**
+     * Aggregates of the changed (employee, project, day) keys; one without records any more has
+     * zero seconds, so a client replacing its copy by id, project and day also drops deleted hours.
+     */
+    private ReportQuery buildChanged() {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        bindings.put("changedSince", changedSince);
+        List<String> predicates = new ArrayList<>();
+        if (employeeId != null) {
+            predicates.add("c.employee_id = :employeeId");
+            bindings.put("employeeId", employeeId);
+        }
+        if (startDate != null) {
+            predicates.add("c.day >= :startDate");
+            bindings.put("startDate", startDate);
+        }
+        if (endDate != null) {
+            predicates.add("c.day <= :endDate");
+            bindings.put("endDate", endDate);
+        }
+        String sql = shape == Shape.EMPLOYEES ? changedEmployeesSql(predicates) : changedProjectsSql(predicates);
+        return new ReportQuery(sql, bindings);
+    }
+
+    private String changedEmployeesSql(List<String> predicates) {
+        return CHANGED + """
+                SELECT e.id AS employee_id, e.name AS employee_name, c.day, p.name AS project_name,
+                       COALESCE(d.seconds, 0) AS total_seconds
+                FROM changed c
+                JOIN employee e ON e.id = c.employee_id
+                JOIN project p ON p.id = c.project_id
+                LEFT JOIN time_record_daily d ON d.employee_id = c.employee_id AND d.project_id = c.project_id AND d.day = c.day
+                """ + where(predicates) + "ORDER BY e.id, c.day, p.name";
+    }
+
+    private String changedProjectsSql(List<String> predicates) {
+        StringBuilder sql = new StringBuilder(CHANGED).append("""
+                SELECT p.id AS project_id, p.name AS project_name, c.day,
+                       COALESCE(SUM(d.seconds), 0)::BIGINT AS total_seconds
+                FROM (SELECT DISTINCT c.project_id, c.day FROM changed c
+                """).append(where(predicates)).append("""
+                ) c
+                JOIN project p ON p.id = c.project_id
+                LEFT JOIN time_record_daily d ON d.project_id = c.project_id AND d.day = c.day""");
+        // A project's day sums every employee's hours, or only the filtered employee's
+        if (employeeId != null) {
+            sql.append(" AND d.employee_id = :employeeId");
+        }
+        sql.append("""
+
+                GROUP BY p.id, p.name, c.day
+                ORDER BY p.id, c.day""");
+        return sql.toString();
+    }
+
+    /**
+     * Ids of the first {@code limit} employees (or projects with hours in the range) after
+     * {@code afterId}, in report order.
+     */
+    public ReportQuery buildPageIds(int limit) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        if (employeeId != null) {
+            bindings.put("employeeId", employeeId);
+        }
+        if (afterId != null) {
+            bindings.put("afterId", afterId);
+        }
+        bindings.put("limit", limit);
+        String sql = shape == Shape.EMPLOYEES ? employeePageIdsSql() : projectPageIdsSql(bindings);
+        return new ReportQuery(sql, bindings);
+    }
+
+    private String employeePageIdsSql() {
+        List<String> predicates = new ArrayList<>();
+        if (employeeId != null) {
+            predicates.add("e.id = :employeeId");
+        }
+        if (afterId != null) {
+            predicates.add("e.id > :afterId");
+        }
+        return "SELECT e.id FROM employee e\n" + where(predicates) + "ORDER BY e.id\nLIMIT :limit";
+    }
+
+    private String projectPageIdsSql(Map<String, Object> bindings) {
+        List<String> rollupPredicates = new ArrayList<>();
+        rollupPredicates.add("d.project_id = p.id");
+        if (employeeId != null) {
+            rollupPredicates.add("d.employee_id = :employeeId");
+        }
+        if (startDate != null) {
+            rollupPredicates.add("d.day >= :startDate");
+            bindings.put("startDate", startDate);
+        }
+        if (endDate != null) {
+            rollupPredicates.add("d.day <= :endDate");
+            bindings.put("endDate", endDate);
+        }
+        List<String> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add("p.id > :afterId");
+        }
+        predicates.add("EXISTS (SELECT 1 FROM time_record_daily d WHERE " + String.join(" AND ", rollupPredicates) + ")");
+        return "SELECT p.id FROM project p\n" + where(predicates) + "ORDER BY p.id\nLIMIT :limit";
+    }
+
+    private void bindIdRange(Map<String, Object> bindings) {
+        if (afterId != null) {
+            bindings.put("afterId", afterId);
+        }
+        if (untilId != null) {
+            bindings.put("untilId", untilId);
+        }
+    }
+
+    private static String where(List<String> predicates) {
+        return predicates.isEmpty() ? "" : "WHERE " + String.join("\n  AND ", predicates) + "\n";
+    }
+
+    private String employeesSql(List<String> dayPredicates) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT e.id AS employee_id, e.name AS employee_name, d.day, p.name AS project_name,
+                       SUM(d.seconds)::BIGINT AS total_seconds
+                FROM employee e
+                LEFT JOIN time_record_daily d ON d.employee_id = e.id""");
+        // Day filters belong to the join so employees without hours in the range are kept
+        for (String predicate : dayPredicates) {
+            sql.append(" AND ").append(predicate);
+        }
+        sql.append("\nLEFT JOIN project p ON d.project_id = p.id\n");
+        List<String> predicates = new ArrayList<>();
+        if (employeeId != null) {
+            predicates.add("e.id = :employeeId");
+        }
+        if (afterId != null) {
+            predicates.add("e.id > :afterId");
+        }
+        if (untilId != null) {
+            predicates.add("e.id <= :untilId");
+        }
+        sql.append(where(predicates));
+        sql.append("""
+                GROUP BY e.id, e.name, d.day, p.name
+                ORDER BY e.id, d.day, p.name""");
+        return sql.toString();
+    }
+
+    private String projectsSql(List<String> dayPredicates) {
+        List<String> predicates = new ArrayList<>();
+        if (employeeId != null) {
+            predicates.add("d.employee_id = :employeeId");
+        }
+        if (afterId != null) {
+            predicates.add("d.project_id > :afterId");
+        }
+        if (untilId != null) {
+            predicates.add("d.project_id <= :untilId");
+        }
+        predicates.addAll(dayPredicates);
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT p.id AS project_id, p.name AS project_name, d.day,
+                       SUM(d.seconds)::BIGINT AS total_seconds
+                FROM time_record_daily d
+                JOIN project p ON d.project_id = p.id
+                """);
+        sql.append(where(predicates));
+        sql.append("""
+                GROUP BY p.id, p.name, d.day
+                ORDER BY p.id, d.day""");
+        return sql.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.reportingservice.repository;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Executes the filter-specialized report statements from {@link ReportQueryBuilder}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReportQueryRepository {
+
+    /** Rows fetched per round trip, so large reports are not read into memory all at once. */
+    static final int FETCH_SIZE = 1000;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<EmployeeReportRow> findEmployeeRows(ReportFilter filter) {
+        ReportQuery query = ReportQueryBuilder.employees().filter(filter).build();
+        return execute(query)
+                .map((row, metadata) -> new EmployeeReportRow(
+                        row.get("employee_id", Long.class),
+                        row.get("employee_name", String.class),
+                        row.get("day", LocalDate.class),
+                        row.get("project_name", String.class),
+                        totalSeconds(row)))
+                .all();
+    }
+
+    public Flux<ProjectReportRow> findProjectRows(ReportFilter filter) {
+        ReportQuery query = ReportQueryBuilder.projects().filter(filter).build();
+        return execute(query)
+                .map((row, metadata) -> new ProjectReportRow(
+                        row.get("project_id", Long.class),
+                        row.get("project_name", String.class),
+                        row.get("day", LocalDate.class),
+                        totalSeconds(row)))
+                .all();
+    }
+
+    /**
+     * Ids of the next keyset page of the employees report, see {@link ReportQueryBuilder#buildPageIds(int)}.
+     */
+    public Flux<Long> findEmployeePageIds(ReportFilter filter, int limit) {
+        return execute(ReportQueryBuilder.employees().filter(filter).buildPageIds(limit))
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all();
+    }
+
+    /**
+     * Ids of the next keyset page of the projects report, see {@link ReportQueryBuilder#buildPageIds(int)}.
+     */
+    public Flux<Long> findProjectPageIds(ReportFilter filter, int limit) {
+        return execute(ReportQueryBuilder.projects().filter(filter).buildPageIds(limit))
+                .map((row, metadata) -> row.get("id", Long.class))
+                .all();
+    }
+
+    /**
+     * Days with hours, read from the ends of the rollup's day index.
+     */
+    public Mono<DayRange> findDayRange() {
+        return databaseClient.sql("SELECT MIN(day) AS first_day, MAX(day) AS last_day FROM time_record_daily")
+                .map((row, metadata) -> new DayRange(
+                        row.get("first_day", LocalDate.class),
+                        row.get("last_day", LocalDate.class)))
+                .one();
+    }
+
+    /**
+     * Watermark for changed-since reports: the oldest transaction still running, every older one
+     * has finished. A report over the changes at or after it, read after this call, misses none;
+     * changes it sees again in the next report only repeat their current value.
+     */
+    public Mono<Long> findWatermark() {
+        return databaseClient.sql("SELECT pg_snapshot_xmin(pg_current_snapshot())::TEXT::BIGINT AS watermark")
+                .map((row, metadata) -> row.get("watermark", Long.class))
+                .one();
+    }
+
+    /**
+     * Employees without hours in the range come back with a {@code null} sum.
+     */
+    private static long totalSeconds(Row row) {
+        Long seconds = row.get("total_seconds", Long.class);
+        return seconds != null ? seconds : 0L;
+    }
+
+    private DatabaseClient.GenericExecuteSpec execute(ReportQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(query.getSql())
+                // Statement.fetchSize returns the driver statement, not the r2dbc-proxy wrapping it
+                .filter(statement -> {
+                    statement.fetchSize(FETCH_SIZE);
+                    return statement;
+                });
+        for (Map.Entry<String, Object> binding : query.getBindings().entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+}
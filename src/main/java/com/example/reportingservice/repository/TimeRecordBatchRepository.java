@@ -0,0 +1,66 @@
+package com.example.reportingservice.repository;
+
+import com.example.reportingservice.model.TimeRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes a batch of time records with one set-based statement bound to arrays. A record with an
+ * existing {@code (id, time_from)} is updated in place, and only when it differs, so re-importing
+ * unchanged records writes nothing: no rollup maintenance, no new {@code modified_xid}, no
+ * tombstones. Only for ids not found under their {@code time_from} (new or moved records) is an
+ * old row looked up by {@code id} alone, which reads every month's partition, and removed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TimeRecordBatchRepository {
+
+    private static final String UPSERT_BATCH = """
+            WITH batch AS (
+                SELECT * FROM unnest(:ids::BIGINT[], :employeeIds::BIGINT[], :projectIds::BIGINT[],
+                                     :timeFroms::TIMESTAMP[], :timeTos::TIMESTAMP[])
+                    AS b(id, employee_id, project_id, time_from, time_to)
+            ), relocated AS (
+                SELECT b.id, b.time_from FROM batch b
+                WHERE NOT EXISTS (SELECT 1 FROM time_record t WHERE t.id = b.id AND t.time_from = b.time_from)
+            ), moved AS (
+                DELETE FROM time_record t
+                USING relocated r
+                WHERE t.id = r.id AND t.time_from <> r.time_from
+            ), written AS (
+                INSERT INTO time_record AS t (id, employee_id, project_id, time_from, time_to)
+                SELECT * FROM batch
+                ON CONFLICT (id, time_from) DO UPDATE
+                    SET employee_id = EXCLUDED.employee_id,
+                        project_id = EXCLUDED.project_id,
+                        time_to = EXCLUDED.time_to
+                    WHERE (t.employee_id, t.project_id, t.time_to)
+                          IS DISTINCT FROM (EXCLUDED.employee_id, EXCLUDED.project_id, EXCLUDED.time_to)
+                RETURNING t.id
+            )
+            SELECT COUNT(*) AS written FROM written""";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Replaces the records with the batch's ids by the batch. Ids must be unique within the batch
+     * and the caller must run this in a transaction.
+     *
+     * @return the number of records inserted or changed
+     */
+    public Mono<Long> upsert(List<TimeRecord> batch) {
+        return databaseClient.sql(UPSERT_BATCH)
+                .bind("ids", batch.stream().map(TimeRecord::getId).toArray(Long[]::new))
+                .bind("employeeIds", batch.stream().map(TimeRecord::getEmployeeId).toArray(Long[]::new))
+                .bind("projectIds", batch.stream().map(TimeRecord::getProjectId).toArray(Long[]::new))
+                .bind("timeFroms", batch.stream().map(TimeRecord::getTimeFrom).toArray(LocalDateTime[]::new))
+                .bind("timeTos", batch.stream().map(TimeRecord::getTimeTo).toArray(LocalDateTime[]::new))
+                .map((row, metadata) -> row.get("written", Long.class))
+                .one();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.reportingservice.repository;
+
+import com.example.reportingservice.model.UserEmployee;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserEmployeeRepository extends R2dbcRepository<UserEmployee, String> {
+
+}
@@ -0,0 +1,76 @@
+package com.example.reportingservice.security;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Remembers successful username/password authentications for a short time so repeated HTTP Basic
+ * requests skip the deliberately slow password hash check of the delegate.
+ * <p>
+ * Entries are keyed by an HMAC of the credentials under a random key generated at startup, so
+ * neither passwords nor unkeyed password hashes are held in memory. Failed attempts are never
+ * cached and always reach the delegate. Concurrent first requests with the same credentials share
+ * one check. Changes to a user take effect once its entry expires.
+ */
+@Slf4j
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final ReactiveAuthenticationManager delegate;
+    private final SecretKeySpec cacheKey;
+    private final AsyncCache<String, Authentication> cache;
+
+    public CachingReactiveAuthenticationManager(ReactiveAuthenticationManager delegate,
+                                                ReportingProperties.CredentialCache properties,
+                                                MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.cacheKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "credentials");
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        String key = credentialKey(authentication.getName(), authentication.getCredentials().toString());
+        // A failed check completes the future exceptionally, which removes it from the cache.
+        // Cancelling one caller must not cancel the check other callers wait for.
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> delegate.authenticate(authentication).toFuture()), true);
+    }
+
+    private String credentialKey(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(cacheKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.reportingservice.security;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -7,45 +8,41 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
-
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class CurrentUserService {
 
-    // Demo mapping: username -> employeeId
-    private static final Map<String, Long> USER_TO_EMPLOYEE_MAP = Map.of(
-            "user", 101L,  // user can see data for employee ID 101 (Tom)
-            "admin", 999L // admin can see all data (this mapping won't be used)
-    );
-
-    public Mono<String> getCurrentUsername() {
-        return ReactiveSecurityContextHolder.getContext()
-                .map(SecurityContext::getAuthentication)
-                .map(Authentication::getName);
-    }
+    private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
 
-    public Mono<Long> getCurrentEmployeeId() {
-        return getCurrentUsername()
-                .map(username -> {
-                    Long employeeId = USER_TO_EMPLOYEE_MAP.get(username);
-                    if (employeeId == null) {
-                        throw new IllegalStateException("No employee mapping found for user: " + username);
-                    }
-                    return employeeId;
-                })
-                .doOnNext(employeeId -> log.debug("Mapped to employee ID: {}", employeeId));
-    }
+    private final UserEmployeeMapping userEmployeeMapping;
 
-    public Mono<Boolean> hasRole(String role) {
-        return ReactiveSecurityContextHolder.getContext()
-                .map(SecurityContext::getAuthentication)
-                .map(auth -> auth.getAuthorities().stream()
-                        .anyMatch(authority -> authority.getAuthority().equals("ROLE_" + role)))
-                .doOnNext(hasRole -> log.debug("User has role {}: {}", role, hasRole));
+    /**
+     * The caller resolved by {@link ReportPrincipalFilter} for this request. Outside of a request
+     * the caller is resolved from the security context instead.
+     */
+    public Mono<ReportPrincipal> getCurrentPrincipal() {
+        return Mono.deferContextual(context -> context.<ReportPrincipal>getOrEmpty(ReportPrincipal.class)
+                .map(Mono::just)
+                .orElseGet(() -> ReactiveSecurityContextHolder.getContext()
+                        .map(SecurityContext::getAuthentication)
+                        .flatMap(this::resolve)));
     }
 
-    public Mono<Boolean> isAdmin() {
-        return hasRole("ADMIN");
+    /**
+     * Role and employee scope of an authenticated user. Only non-admins need their employee, which
+     * comes from the cached mapping.
+     */
+    public Mono<ReportPrincipal> resolve(Authentication authentication) {
+        String username = authentication.getName();
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+        if (admin) {
+            return Mono.just(ReportPrincipal.admin(username));
+        }
+        return userEmployeeMapping.findEmployeeId(username)
+                .map(employeeId -> ReportPrincipal.user(username, employeeId))
+                .defaultIfEmpty(ReportPrincipal.user(username, null))
+                .doOnNext(principal -> log.debug("Resolved user {} to employee ID {}", username, principal.getEmployeeId()));
     }
 }
@@ -0,0 +1,30 @@
+package com.example.reportingservice.security;
+
+import lombok.Value;
+
+/**
+ * The caller of a request as reports see it, resolved once per request by {@link ReportPrincipalFilter}.
+ */
+@Value
+public class ReportPrincipal {
+
+    String username;
+    boolean admin;
+    /** Employee whose data a non-admin may see, {@code null} for admins and unmapped users. */
+    Long employeeId;
+
+    public static ReportPrincipal admin(String username) {
+        return new ReportPrincipal(username, true, null);
+    }
+
+    public static ReportPrincipal user(String username, Long employeeId) {
+        return new ReportPrincipal(username, false, employeeId);
+    }
+
+    public Long requireEmployeeId() {
+        if (employeeId == null) {
+            throw new IllegalStateException("No employee mapping found for user: " + username);
+        }
+        return employeeId;
+    }
+}
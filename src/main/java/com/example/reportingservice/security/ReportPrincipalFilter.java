@@ -0,0 +1,55 @@
+package com.example.reportingservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Resolves the authenticated caller into a {@link ReportPrincipal} once per request and stores it
+ * both as an exchange attribute and in the Reactor context, where
+ * {@link CurrentUserService#getCurrentPrincipal()} finds it.
+ */
+@Component
+@Order(90)  // After the security filters, before request logging
+@RequiredArgsConstructor
+public class ReportPrincipalFilter implements WebFilter {
+
+    private static final String PRINCIPAL_ATTRIBUTE = ReportPrincipal.class.getName();
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+    private final CurrentUserService currentUserService;
+
+    /**
+     * The caller of the exchange, {@code null} for anonymous requests.
+     */
+    @Nullable
+    public static ReportPrincipal getPrincipal(ServerWebExchange exchange) {
+        return exchange.getAttribute(PRINCIPAL_ATTRIBUTE);
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> authentication.isAuthenticated() && !trustResolver.isAnonymous(authentication))
+                .flatMap(currentUserService::resolve)
+                .map(principal -> {
+                    exchange.getAttributes().put(PRINCIPAL_ATTRIBUTE, principal);
+                    return Context.of(ReportPrincipal.class, principal);
+                })
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+}
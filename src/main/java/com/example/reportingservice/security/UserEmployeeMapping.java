@@ -0,0 +1,49 @@
+package com.example.reportingservice.security;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.model.UserEmployee;
+import com.example.reportingservice.repository.UserEmployeeRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Cached view of the {@code user_employee} table. Entries are reloaded in the background once
+ * older than {@code reporting.principal-cache.refresh-after}, so mapping changes show up without a
+ * restart while requests keep being served from memory. Users without a mapping are cached too.
+ */
+@Service
+@Slf4j
+public class UserEmployeeMapping {
+
+    private final AsyncLoadingCache<String, Optional<Long>> cache;
+
+    public UserEmployeeMapping(UserEmployeeRepository repository,
+                               ReportingProperties properties,
+                               MeterRegistry meterRegistry) {
+        ReportingProperties.PrincipalCache cacheProperties = properties.getPrincipalCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaxSize())
+                .refreshAfterWrite(cacheProperties.getRefreshAfter())
+                .expireAfterWrite(cacheProperties.getExpireAfter())
+                .recordStats()
+                .buildAsync((username, executor) -> repository.findById(username)
+                        .map(UserEmployee::getEmployeeId)
+                        .doOnSubscribe(subscription -> log.debug("Loading employee mapping of user {}", username))
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-employees");
+    }
+
+    public Mono<Long> findEmployeeId(String username) {
+        return Mono.fromFuture(() -> cache.get(username), true)
+                .flatMap(Mono::justOrEmpty);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.ProjectReport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded in-memory cache of complete report results. Entries are weighed by the estimated size of
+ * their NDJSON output, expire after {@code reporting.cache.ttl} and are dropped as soon as a
+ * {@link TimeRecordsChangedEvent} touches a day inside their date range.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics tagged {@code cache=reports}.
+ */
+@Component
+@Slf4j
+public class ReportCache {
+
+    private final ReportingProperties.Cache properties;
+    private final Cache<ReportCacheKey, CachedReport> cache;
+
+    // Bumped on every change so reports computed concurrently with a change are not stored
+    private final AtomicLong generation = new AtomicLong();
+
+    public ReportCache(ReportingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(this.properties.getMaxSize().toBytes())
+                .weigher((ReportCacheKey key, CachedReport report) -> (int) Math.min(Integer.MAX_VALUE, report.getWeight()))
+                .expireAfterWrite(this.properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reports");
+    }
+
+    /**
+     * Replays the cached result for {@code key}, or streams {@code report} while collecting it
+     * and caches it once it completed without a concurrent change.
+     */
+    public <T> Flux<T> cached(ReportCacheKey key, Flux<T> report, ToLongFunction<T> sizeEstimate) {
+        return cached(key, report, sizeEstimate, () -> true);
+    }
+
+    /**
+     * Like {@link #cached(ReportCacheKey, Flux, ToLongFunction)}, but only caches the completed
+     * report if {@code cacheable} then holds.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> cached(ReportCacheKey key, Flux<T> report, ToLongFunction<T> sizeEstimate, BooleanSupplier cacheable) {
+        if (!properties.isEnabled()) {
+            return report;
+        }
+        return Flux.defer(() -> {
+            CachedReport cached = cache.getIfPresent(key);
+            if (cached != null) {
+                log.debug("Report cache hit for {}", key);
+                return Flux.fromIterable((List<T>) cached.getReports());
+            }
+            Collector<T> collector = new Collector<>(generation.get(), properties.getMaxEntrySize().toBytes(), sizeEstimate);
+            return report
+                    .doOnNext(collector::add)
+                    .doOnComplete(() -> {
+                        if (cacheable.getAsBoolean()) {
+                            collector.storeInto(key);
+                        }
+                    });
+        });
+    }
+
+    @EventListener
+    public void onTimeRecordsChanged(TimeRecordsChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.getDay() == null) {
+            cache.invalidateAll();
+        } else {
+            cache.asMap().keySet().removeIf(key -> key.covers(event.getDay()));
+        }
+    }
+
+    public static long estimateSize(EmployeeReport report) {
+        long size = 32 + length(report.getName());
+        if (report.getHoursSpent() != null) {
+            for (DailyHours hours : report.getHoursSpent()) {
+                size += 64 + length(hours.getProjectName());
+            }
+        }
+        return size;
+    }
+
+    public static long estimateSize(ProjectReport report) {
+        long size = 32 + length(report.getName());
+        if (report.getHoursSpent() != null) {
+            size += 40L * report.getHoursSpent().size();
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 4;
+    }
+
+    @Value
+    private static class CachedReport {
+        List<?> reports;
+        long weight;
+    }
+
+    private class Collector<T> {
+        private final long startGeneration;
+        private final long maxWeight;
+        private final ToLongFunction<T> sizeEstimate;
+        private List<T> reports = new ArrayList<>();
+        private long weight;
+
+        Collector(long startGeneration, long maxWeight, ToLongFunction<T> sizeEstimate) {
+            this.startGeneration = startGeneration;
+            this.maxWeight = maxWeight;
+            this.sizeEstimate = sizeEstimate;
+        }
+
+        void add(T report) {
+            if (reports == null) {
+                return;
+            }
+            weight += sizeEstimate.applyAsLong(report);
+            if (weight > maxWeight) {
+                reports = null; // too large to cache, stop holding on to it
+            } else {
+                reports.add(report);
+            }
+        }
+
+        void storeInto(ReportCacheKey key) {
+            if (reports != null && generation.get() == startGeneration) {
+                cache.put(key, new CachedReport(List.copyOf(reports), weight));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.reportingservice.service;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Identifies a cached report by its type, the caller's scope (admin or a single employee)
+ * and the requested date range.
+ */
+@Value
+public class ReportCacheKey {
+
+    public enum ReportType { EMPLOYEES, PROJECTS }
+
+    ReportType type;
+    boolean admin;
+    Long employeeId;
+    LocalDate startDate;
+    LocalDate endDate;
+
+    public static ReportCacheKey admin(ReportType type, LocalDate startDate, LocalDate endDate) {
+        return new ReportCacheKey(type, true, null, startDate, endDate);
+    }
+
+    public static ReportCacheKey employee(ReportType type, Long employeeId, LocalDate startDate, LocalDate endDate) {
+        return new ReportCacheKey(type, false, employeeId, startDate, endDate);
+    }
+
+    public boolean covers(LocalDate day) {
+        return (startDate == null || !day.isBefore(startDate))
+                && (endDate == null || !day.isAfter(endDate));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.reportingservice.service;
+
+import lombok.Value;
+import reactor.core.publisher.Flux;
+
+/**
+ * The aggregates of a report changed since a watermark, and the watermark to pass for the next changes.
+ */
+@Value
+public class ReportChanges<T> {
+    Flux<T> reports;
+    long watermark;
+}
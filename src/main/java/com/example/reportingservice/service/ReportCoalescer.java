@@ -0,0 +1,316 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.config.ReportingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscription;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs identical concurrent report requests as one execution. A request for a report that is
+ * already being produced joins it and is replayed every report from the first one on, then
+ * follows the execution live. Joining is possible while the reports produced so far are within
+ * {@code reporting.coalescing.max-replay-size}; later requests start an execution of their own.
+ * <p>
+ * The execution reads its rows at the pace of its slowest request, at most {@code prefetch}
+ * reports ahead of it, so memory stays bounded by the replayed head plus that window. A request
+ * that cancels only leaves the execution; the last one to leave cancels it. Requests and joins
+ * are counted in {@code report.coalescing.requests}, tagged {@code outcome=executed|joined}.
+ */
+@Component
+@Slf4j
+public class ReportCoalescer {
+
+    private final ReportingProperties.Coalescing properties;
+    private final Map<ReportCacheKey, SharedReport<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter joined;
+
+    public ReportCoalescer(ReportingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getCoalescing();
+        this.executed = Counter.builder("report.coalescing.requests")
+                .description("Report requests by whether they started an execution or joined one in flight")
+                .tag("outcome", "executed")
+                .register(meterRegistry);
+        this.joined = Counter.builder("report.coalescing.requests")
+                .description("Report requests by whether they started an execution or joined one in flight")
+                .tag("outcome", "joined")
+                .register(meterRegistry);
+        Gauge.builder("report.coalescing.in.flight", inFlight, Map::size)
+                .description("Report executions that requests can still join")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code report}, shared with the concurrent requests for the same {@code key}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> coalesced(ReportCacheKey key, Flux<T> report, ToLongFunction<T> sizeEstimate) {
+        if (!properties.isEnabled()) {
+            return report;
+        }
+        // Readers only emit what was requested, so the sink needs no buffer of its own
+        return Flux.create(sink -> {
+            while (true) {
+                SharedReport<T> shared = (SharedReport<T>) inFlight.get(key);
+                if (shared != null && shared.join(sink)) {
+                    log.debug("Report request for {} joined the execution in flight", key);
+                    joined.increment();
+                    return;
+                }
+                SharedReport<T> created = new SharedReport<>(key, report, sizeEstimate);
+                if (shared != null ? inFlight.replace(key, shared, created) : inFlight.putIfAbsent(key, created) == null) {
+                    executed.increment();
+                    created.join(sink);
+                    created.start(Context.of(sink.contextView()));
+                    return;
+                }
+            }
+        }, FluxSink.OverflowStrategy.IGNORE);
+    }
+
+    /**
+     * Executions that already read a changed day are not joined any more.
+     */
+    @EventListener
+    public void onTimeRecordsChanged(TimeRecordsChangedEvent event) {
+        inFlight.forEach((key, shared) -> {
+            if (event.getDay() == null || key.covers(event.getDay())) {
+                shared.stopJoining();
+            }
+        });
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * One execution and the requests reading it. Every report is kept while new requests can
+     * join; after that, reports every request has passed are dropped.
+     */
+    private final class SharedReport<T> {
+
+        private final ReportCacheKey key;
+        private final Flux<T> report;
+        private final ToLongFunction<T> sizeEstimate;
+        private final List<Reader> readers = new CopyOnWriteArrayList<>();
+        private final UpstreamSubscriber upstream = new UpstreamSubscriber();
+
+        // Guarded by this
+        private final List<T> reports = new ArrayList<>();
+        private long dropped;
+        private long size;
+        private long requested;
+        private boolean subscribed;
+        private boolean joinable = true;
+        private boolean done;
+        private Throwable error;
+
+        SharedReport(ReportCacheKey key, Flux<T> report, ToLongFunction<T> sizeEstimate) {
+            this.key = key;
+            this.report = report;
+            this.sizeEstimate = sizeEstimate;
+        }
+
+        /**
+         * Adds a request reading from the first report on, unless the execution can no longer be joined.
+         */
+        boolean join(FluxSink<T> sink) {
+            Reader reader = new Reader(sink);
+            synchronized (this) {
+                if (!joinable) {
+                    return false;
+                }
+                readers.add(reader);
+            }
+            sink.onRequest(n -> reader.drain());
+            sink.onDispose(() -> leave(reader));
+            return true;
+        }
+
+        void start(Context context) {
+            upstream.context = context;
+            report.subscribe(upstream);
+        }
+
+        synchronized void stopJoining() {
+            closeJoining();
+        }
+
+        private void leave(Reader reader) {
+            boolean last;
+            synchronized (this) {
+                last = readers.remove(reader) && readers.isEmpty();
+                if (last) {
+                    closeJoining();
+                }
+            }
+            if (last) {
+                upstream.dispose();
+            } else {
+                requestMore();
+            }
+        }
+
+        private void received(T report) {
+            synchronized (this) {
+                requested--;
+                reports.add(report);
+                size += sizeEstimate.applyAsLong(report);
+                if (joinable && size > properties.getMaxReplaySize().toBytes()) {
+                    closeJoining();
+                }
+            }
+            drainAll();
+        }
+
+        private void terminated(Throwable failure) {
+            synchronized (this) {
+                done = true;
+                error = failure;
+                closeJoining();
+            }
+            drainAll();
+        }
+
+        /** Lets following requests start an execution of their own. */
+        private void closeJoining() {
+            joinable = false;
+            inFlight.remove(key, this);
+        }
+
+        private void drainAll() {
+            readers.forEach(Reader::drain);
+        }
+
+        /**
+         * Requests reports up to {@code prefetch} ahead of the slowest reader and drops the reports
+         * all readers have passed once nobody can join.
+         */
+        private void requestMore() {
+            long request;
+            synchronized (this) {
+                if (!subscribed || done || readers.isEmpty()) {
+                    return;
+                }
+                long slowest = Long.MAX_VALUE;
+                for (Reader reader : readers) {
+                    slowest = Math.min(slowest, reader.position);
+                }
+                if (!joinable && slowest > dropped) {
+                    reports.subList(0, (int) (slowest - dropped)).clear();
+                    dropped = slowest;
+                }
+                long available = dropped + reports.size() + requested;
+                request = slowest + properties.getPrefetch() - available;
+                if (request <= 0 || request < properties.getPrefetch() / 2) {
+                    return; // request in batches
+                }
+                requested += request;
+            }
+            upstream.request(request);
+        }
+
+        private final class UpstreamSubscriber extends BaseSubscriber<T> {
+
+            private Context context = Context.empty();
+
+            @Override
+            public Context currentContext() {
+                return context;
+            }
+
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                synchronized (SharedReport.this) {
+                    subscribed = true;
+                }
+                requestMore();
+            }
+
+            @Override
+            protected void hookOnNext(T value) {
+                received(value);
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                terminated(null);
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                terminated(throwable);
+            }
+        }
+
+        /**
+         * One request's position in the execution. Drains are serialized per reader, so reports
+         * reach its sink in order and only as far as it requested them.
+         */
+        private final class Reader {
+
+            private final FluxSink<T> sink;
+            private final AtomicInteger wip = new AtomicInteger();
+            private volatile long position;
+
+            Reader(FluxSink<T> sink) {
+                this.sink = sink;
+            }
+
+            void drain() {
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+                do {
+                    boolean advanced = false;
+                    while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                        T next;
+                        synchronized (SharedReport.this) {
+                            if (position >= dropped + reports.size()) {
+                                break;
+                            }
+                            next = reports.get((int) (position - dropped));
+                        }
+                        position++;
+                        advanced = true;
+                        sink.next(next);
+                    }
+                    boolean finished;
+                    Throwable failure;
+                    synchronized (SharedReport.this) {
+                        finished = done && position >= dropped + reports.size();
+                        failure = error;
+                    }
+                    if (finished) {
+                        if (failure != null) {
+                            sink.error(failure);
+                        } else {
+                            sink.complete();
+                        }
+                        return;
+                    }
+                    if (advanced) {
+                        requestMore();
+                    }
+                } while (wip.decrementAndGet() != 0);
+            }
+        }
+    }
+}
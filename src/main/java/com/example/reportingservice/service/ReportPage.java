@@ -0,0 +1,13 @@
+package com.example.reportingservice.service;
+
+import lombok.Value;
+import reactor.core.publisher.Flux;
+
+/**
+ * One keyset page of a report: its reports and the id to continue after, {@code null} on the last page.
+ */
+@Value
+public class ReportPage<T> {
+    Flux<T> reports;
+    Long nextAfterId;
+}
@@ -1,9 +1,12 @@
 package com.example.reportingservice.service;
 
+import com.example.reportingservice.config.ReplicaRoutingConnectionFactory;
+import com.example.reportingservice.config.ReplicaRoutingConnectionFactory.ReadOnlySession;
+import com.example.reportingservice.config.ReportingProperties;
 import com.example.reportingservice.dto.*;
-import com.example.reportingservice.model.Employee;
 import com.example.reportingservice.repository.*;
 import com.example.reportingservice.security.CurrentUserService;
+import com.example.reportingservice.service.ReportCacheKey.ReportType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,87 +14,298 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReportService {
     
-    private final TimeRecordRepository timeRecordRepository;
-    private final EmployeeRepository employeeRepository;
-    private final ProjectRepository projectRepository;
+    private final ReportQueryRepository reportQueryRepository;
     private final CurrentUserService currentUserService;
+    private final ReportCache reportCache;
+    private final ReportCoalescer reportCoalescer;
+    private final ReportingProperties properties;
     
     public Flux<EmployeeReport> streamEmployeesReport(LocalDate startDate, LocalDate endDate) {
         log.info("Streaming employees report from {} to {}", startDate, endDate);
         
-        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
-        LocalDateTime endDateTime = endDate != null ? endDate.atTime(23, 59, 59) : null;
-        
-        return currentUserService.isAdmin()
-                .flatMapMany(isAdmin -> {
-                    if (Boolean.TRUE.equals(isAdmin)) {
-                        // ADMIN: fetch all employees from database
-                        log.debug("Admin user - fetching all employees from database");
-                        return employeeRepository.findAll();
+        return currentUserService.getCurrentPrincipal()
+                .flatMapMany(principal -> {
+                    if (principal.isAdmin()) {
+                        // ADMIN: one ordered query over all employees, grouped while streaming
+                        log.debug("Admin user - fetching all employees with a single query");
+                        return report(ReportCacheKey.admin(ReportType.EMPLOYEES, startDate, endDate),
+                                session -> createEmployeeReport(filter(startDate, endDate, null), session),
+                                ReportCache::estimateSize);
                     } else {
                         // USER: fetch only the specific employee from database
-                        return findAndValidateEmployee();
+                        Long employeeId = principal.requireEmployeeId();
+                        return report(ReportCacheKey.employee(ReportType.EMPLOYEES, employeeId, startDate, endDate),
+                                session -> createEmployeeReport(filter(startDate, endDate, employeeId), session),
+                                ReportCache::estimateSize);
                     }
                 })
-                .concatMap(employee -> 
-                    timeRecordRepository.findEmployeeDailyHours(employee.getId(), startDateTime, endDateTime)
-                        .map(dailyHours -> new DailyHours(dailyHours.getDay(), dailyHours.getProjectName(), dailyHours.getTotalHours()))
-                        .collectList()
-                        .map(hoursSpent -> new EmployeeReport(employee.getName(), hoursSpent))
-                )
                 .doOnNext(employeeReport -> log.debug("Streaming employee report for: {}", employeeReport.getName()))
                 .doOnError(error -> log.error("Error streaming employees report", error));
     }
 
-    private Flux<Employee> findAndValidateEmployee() {
-        return currentUserService.getCurrentEmployeeId()
-                .flatMapMany(employeeId -> {
-                    log.debug("Regular user - fetching employee ID {} from database", employeeId);
-                    return employeeRepository.findById(employeeId)
-                            .switchIfEmpty(Mono.error(new IllegalStateException(
-                                "Employee with ID " + employeeId + " not found in database")));
-                });
+    /**
+     * Streams the employees report in consecutive chunks of at most {@code chunkSize} entries of
+     * {@code hoursSpent} (one per day and project) per employee, so memory is bounded by the chunk size
+     * no matter how many days an employee has. An employee spans several consecutive reports with the
+     * same id. Chunked reports are not cached.
+     */
+    public Flux<KeyedEmployeeReport> streamEmployeesReportChunks(LocalDate startDate, LocalDate endDate, int chunkSize) {
+        log.info("Streaming employees report from {} to {} in chunks of {} entries", startDate, endDate, chunkSize);
+
+        return callerFilter(startDate, endDate)
+                .flatMapMany(filter -> createEmployeeReportChunks(filter, chunkSize))
+                .doOnError(error -> log.error("Error streaming employees report", error));
     }
-    
+
+    /**
+     * One keyset page of at most {@code limit} employees with an id greater than {@code afterId}.
+     * The page's ids are looked up first by primary key, so each page costs O(limit) in the
+     * database however far the client has paged. The ids and the page's rows are read from the
+     * same replica, so the rows match the ids. Pages are not cached.
+     */
+    public Mono<ReportPage<EmployeeReport>> pageEmployeesReport(LocalDate startDate, LocalDate endDate, Long afterId, int limit) {
+        log.info("Streaming employees report from {} to {}, {} employees after {}", startDate, endDate, limit, afterId);
+
+        return callerFilter(startDate, endDate)
+                .map(filter -> filter.withAfterId(afterId))
+                .flatMap(filter -> {
+                    ReadOnlySession session = ReplicaRoutingConnectionFactory.readOnlySession();
+                    return reportQueryRepository.findEmployeePageIds(filter, limit + 1)
+                            .contextWrite(session.context())
+                            .collectList()
+                            .map(ids -> toPage(ids, limit, untilId -> createEmployeeReport(filter.withUntilId(untilId), session)));
+                })
+                .doOnError(error -> log.error("Error streaming employees report", error));
+    }
+
+    /**
+     * The employees report restricted to the (project, day) aggregates changed at or after the
+     * watermark {@code since}, together with the watermark for the next call. Both are read from
+     * the primary, since a replica's watermark and rows could come from different points of its
+     * replay. Each employee carries its id, which clients key their copy by. Changes are not cached.
+     */
+    public Mono<ReportChanges<KeyedEmployeeReport>> employeesReportChanges(LocalDate startDate, LocalDate endDate, long since) {
+        log.info("Streaming employees report from {} to {}, changes since {}", startDate, endDate, since);
+
+        return callerFilter(startDate, endDate)
+                .map(filter -> filter.withChangedSince(since))
+                .flatMap(filter -> reportQueryRepository.findWatermark()
+                        .map(watermark -> new ReportChanges<>(reportQueryRepository.findEmployeeRows(filter)
+                                .bufferUntilChanged(EmployeeReportRow::getEmployeeId)
+                                .map(this::toKeyedEmployeeReport), watermark)))
+                .doOnError(error -> log.error("Error streaming employees report", error));
+    }
+
+    /**
+     * Builds the report for every employee (or only the given one) from one query ordered by
+     * employee id, so consecutive rows of the same employee form one {@link EmployeeReport}.
+     */
+    private Flux<EmployeeReport> createEmployeeReport(ReportFilter filter, ReadOnlySession session) {
+        return employeeRows(filter, session)
+                .bufferUntilChanged(EmployeeReportRow::getEmployeeId)
+                .map(this::toEmployeeReport);
+    }
+
+    private Flux<KeyedEmployeeReport> createEmployeeReportChunks(ReportFilter filter, int chunkSize) {
+        return employeeRows(filter, ReplicaRoutingConnectionFactory.readOnlySession())
+                .windowUntilChanged(EmployeeReportRow::getEmployeeId)
+                .concatMap(employeeRows -> employeeRows.buffer(chunkSize).map(this::toKeyedEmployeeReport));
+    }
+
+    private EmployeeReport toEmployeeReport(List<EmployeeReportRow> rows) {
+        List<DailyHours> hoursSpent = rows.stream()
+                .filter(row -> row.getDay() != null) // employee without time records in range
+                .map(row -> new DailyHours(row.getDay(), row.getProjectName(), row.getTotalSeconds()))
+                .toList();
+        return new EmployeeReport(rows.get(0).getEmployeeName(), hoursSpent);
+    }
+
+    private KeyedEmployeeReport toKeyedEmployeeReport(List<EmployeeReportRow> rows) {
+        EmployeeReport report = toEmployeeReport(rows);
+        return new KeyedEmployeeReport(rows.get(0).getEmployeeId(), report.getName(), report.getHoursSpent());
+    }
+
+    /**
+     * The filter for the caller's scope: all employees for admins, only their own employee otherwise.
+     */
+    private Mono<ReportFilter> callerFilter(LocalDate startDate, LocalDate endDate) {
+        return currentUserService.getCurrentPrincipal()
+                .map(principal -> filter(startDate, endDate, principal.isAdmin() ? null : principal.requireEmployeeId()));
+    }
+
+    /**
+     * Rows of the employees report, from concurrent statements over date sub-ranges when the
+     * filter is sharded, see {@link #shards(ReportFilter)}. Report statements only read, so they
+     * may run on a read replica, all of them on the one chosen for the {@code session}.
+     */
+    private Flux<EmployeeReportRow> employeeRows(ReportFilter filter, ReadOnlySession session) {
+        return shards(filter)
+                .flatMapMany(shards -> shards.size() == 1
+                        ? reportQueryRepository.findEmployeeRows(shards.get(0))
+                        : ReportShards.mergeEmployeeRows(shards.stream().map(reportQueryRepository::findEmployeeRows).toList()))
+                .contextWrite(session.context());
+    }
+
+    private Flux<ProjectReportRow> projectRows(ReportFilter filter, ReadOnlySession session) {
+        return shards(filter)
+                .flatMapMany(shards -> shards.size() == 1
+                        ? reportQueryRepository.findProjectRows(shards.get(0))
+                        : ReportShards.mergeProjectRows(shards.stream().map(reportQueryRepository::findProjectRows).toList()))
+                .contextWrite(session.context());
+    }
+
+    /**
+     * With {@code reporting.sharding} enabled, an admin report's range split into date sub-ranges
+     * queried on separate connections. An open range is first bounded by the days with hours.
+     */
+    private Mono<List<ReportFilter>> shards(ReportFilter filter) {
+        ReportingProperties.Sharding sharding = properties.getSharding();
+        if (!sharding.isEnabled() || filter.getEmployeeId() != null) {
+            return Mono.just(List.of(filter));
+        }
+        Mono<DayRange> dayRange = filter.getStartDate() != null && filter.getEndDate() != null
+                ? Mono.just(new DayRange(filter.getStartDate(), filter.getEndDate()))
+                : reportQueryRepository.findDayRange();
+        return dayRange
+                .map(range -> ReportShards.split(filter, range.getFirst(), range.getLast(),
+                        sharding.getMaxShards(), sharding.getMinShardDays()))
+                .defaultIfEmpty(List.of(filter))
+                .doOnNext(shards -> log.debug("Report range {} to {} queried in {} shards",
+                        filter.getStartDate(), filter.getEndDate(), shards.size()));
+    }
+
+    /**
+     * The cached report, or else the report shared with identical requests in flight. A report
+     * read from a replica is not cached: the replica may not have replayed the change that last
+     * invalidated the cache yet, and its result would then be served for the whole TTL.
+     */
+    private <T> Flux<T> report(ReportCacheKey key, Function<ReadOnlySession, Flux<T>> report, ToLongFunction<T> sizeEstimate) {
+        return reportCoalescer.coalesced(key, Flux.defer(() -> {
+            ReadOnlySession session = ReplicaRoutingConnectionFactory.readOnlySession();
+            return reportCache.cached(key, report.apply(session), sizeEstimate, () -> !session.isReplica());
+        }), sizeEstimate);
+    }
+
+    private ReportFilter filter(LocalDate startDate, LocalDate endDate, Long employeeId) {
+        return ReportFilter.of(employeeId, startDate, endDate);
+    }
+
+    /**
+     * Turns up to {@code limit + 1} page ids into the page's reports and, if there is a next page,
+     * the last id of this one.
+     */
+    private static <T> ReportPage<T> toPage(List<Long> ids, int limit, Function<Long, Flux<T>> reportsUntil) {
+        if (ids.isEmpty()) {
+            return new ReportPage<>(Flux.empty(), null);
+        }
+        Long untilId = ids.get(Math.min(ids.size(), limit) - 1);
+        return new ReportPage<>(reportsUntil.apply(untilId), ids.size() > limit ? untilId : null);
+    }
+
     public Flux<ProjectReport> streamProjectsReport(LocalDate startDate, LocalDate endDate) {
         log.info("Streaming projects report from {} to {}", startDate, endDate);
         
-        LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
-        LocalDateTime endDateTime = endDate != null ? endDate.atTime(23, 59, 59) : null;
-        
-        return currentUserService.isAdmin()
-                .flatMapMany(isAdmin -> {
-                    if (Boolean.TRUE.equals(isAdmin)) {
+        return currentUserService.getCurrentPrincipal()
+                .flatMapMany(principal -> {
+                    if (principal.isAdmin()) {
                         // ADMIN: get all projects with no employee filter
                         log.debug("Admin user - fetching all projects");
-                        return createProjectReport(startDateTime, endDateTime, null);
+                        return report(ReportCacheKey.admin(ReportType.PROJECTS, startDate, endDate),
+                                session -> createProjectReport(filter(startDate, endDate, null), session),
+                                ReportCache::estimateSize);
                     } else {
                         // USER: get only projects they worked on
-                        return findAndValidateEmployee()
-                                .flatMap(employee -> 
-                                    createProjectReport(startDateTime, endDateTime, employee.getId())
-                                );
+                        Long employeeId = principal.requireEmployeeId();
+                        return report(ReportCacheKey.employee(ReportType.PROJECTS, employeeId, startDate, endDate),
+                                session -> createProjectReport(filter(startDate, endDate, employeeId), session),
+                                ReportCache::estimateSize);
                     }
                 })
                 .doOnNext(projectReport -> log.debug("Streaming project report for: {}", projectReport.getName()))
                 .doOnError(error -> log.error("Error streaming projects report", error));
     }
 
-    private Flux<ProjectReport> createProjectReport(LocalDateTime startDateTime, LocalDateTime endDateTime, Long employeeId) {
-        return projectRepository.findAll()
-                .concatMap(project -> 
-                    timeRecordRepository.findProjectDailyHours(project.getId(), employeeId, startDateTime, endDateTime)
-                        .map(dailyHours -> new ProjectDailyHours(dailyHours.getDay(), dailyHours.getTotalHours()))
-                        .collectList()
-                        .filter(hoursSpent -> !hoursSpent.isEmpty()) // Only include projects with data
-                        .map(hoursSpent -> new ProjectReport(project.getName(), hoursSpent))
-                );
+    /**
+     * Streams the projects report in consecutive chunks of at most {@code chunkSize} days per project,
+     * see {@link #streamEmployeesReportChunks(LocalDate, LocalDate, int)}.
+     */
+    public Flux<KeyedProjectReport> streamProjectsReportChunks(LocalDate startDate, LocalDate endDate, int chunkSize) {
+        log.info("Streaming projects report from {} to {} in chunks of {} days", startDate, endDate, chunkSize);
+
+        return callerFilter(startDate, endDate)
+                .flatMapMany(filter -> createProjectReportChunks(filter, chunkSize))
+                .doOnError(error -> log.error("Error streaming projects report", error));
+    }
+
+    /**
+     * One keyset page of at most {@code limit} projects with hours in the range and an id greater
+     * than {@code afterId}, see {@link #pageEmployeesReport(LocalDate, LocalDate, Long, int)}.
+     */
+    public Mono<ReportPage<ProjectReport>> pageProjectsReport(LocalDate startDate, LocalDate endDate, Long afterId, int limit) {
+        log.info("Streaming projects report from {} to {}, {} projects after {}", startDate, endDate, limit, afterId);
+
+        return callerFilter(startDate, endDate)
+                .map(filter -> filter.withAfterId(afterId))
+                .flatMap(filter -> {
+                    ReadOnlySession session = ReplicaRoutingConnectionFactory.readOnlySession();
+                    return reportQueryRepository.findProjectPageIds(filter, limit + 1)
+                            .contextWrite(session.context())
+                            .collectList()
+                            .map(ids -> toPage(ids, limit, untilId -> createProjectReport(filter.withUntilId(untilId), session)));
+                })
+                .doOnError(error -> log.error("Error streaming projects report", error));
+    }
+
+    /**
+     * The projects report restricted to the days changed at or after the watermark {@code since},
+     * see {@link #employeesReportChanges(LocalDate, LocalDate, long)}.
+     */
+    public Mono<ReportChanges<KeyedProjectReport>> projectsReportChanges(LocalDate startDate, LocalDate endDate, long since) {
+        log.info("Streaming projects report from {} to {}, changes since {}", startDate, endDate, since);
+
+        return callerFilter(startDate, endDate)
+                .map(filter -> filter.withChangedSince(since))
+                .flatMap(filter -> reportQueryRepository.findWatermark()
+                        .map(watermark -> new ReportChanges<>(reportQueryRepository.findProjectRows(filter)
+                                .bufferUntilChanged(ProjectReportRow::getProjectId)
+                                .map(this::toKeyedProjectReport), watermark)))
+                .doOnError(error -> log.error("Error streaming projects report", error));
+    }
+
+    /**
+     * Builds the report for every project with time records from one query ordered by project id,
+     * optionally restricted to a single employee. Projects without rows never appear in the result.
+     */
+    private Flux<ProjectReport> createProjectReport(ReportFilter filter, ReadOnlySession session) {
+        return projectRows(filter, session)
+                .bufferUntilChanged(ProjectReportRow::getProjectId)
+                .map(this::toProjectReport);
+    }
+
+    private Flux<KeyedProjectReport> createProjectReportChunks(ReportFilter filter, int chunkSize) {
+        return projectRows(filter, ReplicaRoutingConnectionFactory.readOnlySession())
+                .windowUntilChanged(ProjectReportRow::getProjectId)
+                .concatMap(projectRows -> projectRows.buffer(chunkSize).map(this::toKeyedProjectReport));
+    }
+
+    private ProjectReport toProjectReport(List<ProjectReportRow> rows) {
+        List<ProjectDailyHours> hoursSpent = rows.stream()
+                .map(row -> new ProjectDailyHours(row.getDay(), row.getTotalSeconds()))
+                .toList();
+        return new ProjectReport(rows.get(0).getProjectName(), hoursSpent);
+    }
+
+    private KeyedProjectReport toKeyedProjectReport(List<ProjectReportRow> rows) {
+        ProjectReport report = toProjectReport(rows);
+        return new KeyedProjectReport(rows.get(0).getProjectId(), report.getName(), report.getHoursSpent());
     }
 }
@@ -0,0 +1,97 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ProjectReportRow;
+import com.example.reportingservice.repository.ReportFilter;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Splits a report's date range into consecutive sub-ranges and merges the rows of their
+ * statements back into report order.
+ * <p>
+ * Every shard returns its rows ordered by employee (or project) id and day, and the shards' days
+ * do not overlap, so a merge by id and day that takes ties from the earlier shard yields exactly
+ * the order of a single statement over the whole range. The merge only requests rows a shard
+ * can hand on, so each statement streams through its own connection with bounded buffers.
+ */
+final class ReportShards {
+
+    /** Employees without hours in a shard's days have an all-null row there, sorted last like in SQL. */
+    private static final Comparator<EmployeeReportRow> EMPLOYEE_ORDER = Comparator
+            .comparing(EmployeeReportRow::getEmployeeId)
+            .thenComparing(EmployeeReportRow::getDay, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final Comparator<ProjectReportRow> PROJECT_ORDER = Comparator
+            .comparing(ProjectReportRow::getProjectId)
+            .thenComparing(ProjectReportRow::getDay);
+
+    private ReportShards() {
+    }
+
+    /**
+     * The filter split into at most {@code maxShards} sub-ranges of at least {@code minShardDays}
+     * days each, or only the filter itself when the range is too short. {@code first} and
+     * {@code last} are the days with hours, used where the filter's range is open; the first and
+     * last shard keep the filter's own (possibly open) ends.
+     */
+    static List<ReportFilter> split(ReportFilter filter, LocalDate first, LocalDate last, int maxShards, int minShardDays) {
+        LocalDate start = filter.getStartDate() != null ? filter.getStartDate() : first;
+        LocalDate end = filter.getEndDate() != null ? filter.getEndDate() : last;
+        if (start == null || end == null) {
+            return List.of(filter);
+        }
+        long days = ChronoUnit.DAYS.between(start, end) + 1;
+        int shards = (int) Math.min(maxShards, days / Math.max(1, minShardDays));
+        if (shards < 2) {
+            return List.of(filter);
+        }
+        List<ReportFilter> filters = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            LocalDate shardStart = shard == 0 ? filter.getStartDate() : start.plusDays(days * shard / shards);
+            LocalDate shardEnd = shard == shards - 1 ? filter.getEndDate() : start.plusDays(days * (shard + 1) / shards - 1);
+            filters.add(filter.withStartDate(shardStart).withEndDate(shardEnd));
+        }
+        return filters;
+    }
+
+    /**
+     * Employee rows of all shards in report order. An employee's all-null row is only kept when
+     * no shard has hours for them, as a single statement would return it.
+     */
+    static Flux<EmployeeReportRow> mergeEmployeeRows(List<? extends Publisher<EmployeeReportRow>> shards) {
+        return Flux.defer(() -> merge(EMPLOYEE_ORDER, shards).filter(new FirstNullRowOnly()));
+    }
+
+    static Flux<ProjectReportRow> mergeProjectRows(List<? extends Publisher<ProjectReportRow>> shards) {
+        return merge(PROJECT_ORDER, shards);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Flux<T> merge(Comparator<T> order, List<? extends Publisher<T>> shards) {
+        return Flux.mergeComparing(order, shards.toArray(Publisher[]::new));
+    }
+
+    /**
+     * Drops the all-null rows that follow rows of the same employee; the merge sorts them after
+     * the employee's days.
+     */
+    private static final class FirstNullRowOnly implements Predicate<EmployeeReportRow> {
+
+        private Long previousEmployeeId;
+
+        @Override
+        public boolean test(EmployeeReportRow row) {
+            boolean keep = row.getDay() != null || !row.getEmployeeId().equals(previousEmployeeId);
+            previousEmployeeId = row.getEmployeeId();
+            return keep;
+        }
+    }
+}
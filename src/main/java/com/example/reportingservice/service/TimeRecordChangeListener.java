@@ -0,0 +1,81 @@
+package com.example.reportingservice.service;
+
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Listens on the {@code time_record_daily_changed} channel (see V6 migration) over a dedicated,
+ * unpooled connection and republishes each notification as a {@link TimeRecordsChangedEvent}.
+ * Changes made while the connection was down are unknown, so every (re)connect reports all days as changed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TimeRecordChangeListener {
+
+    static final String CHANNEL = "time_record_daily_changed";
+
+    private final R2dbcProperties r2dbcProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl()).mutate();
+        if (r2dbcProperties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (r2dbcProperties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        Mono<PostgresqlConnection> connection = Mono.from(ConnectionFactories.get(options.build()).create())
+                .cast(PostgresqlConnection.class);
+
+        subscription = Flux.usingWhen(connection, this::listen, PostgresqlConnection::close)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Lost {} listener connection, reconnecting", CHANNEL, signal.failure())))
+                .subscribe(eventPublisher::publishEvent);
+    }
+
+    private Flux<TimeRecordsChangedEvent> listen(PostgresqlConnection connection) {
+        return connection.createStatement("LISTEN " + CHANNEL)
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .then(Mono.fromRunnable(() -> log.info("Listening for {} notifications", CHANNEL)))
+                .thenMany(connection.getNotifications()
+                        .map(notification -> toEvent(notification.getParameter()))
+                        .startWith(TimeRecordsChangedEvent.allDays()));
+    }
+
+    private static TimeRecordsChangedEvent toEvent(String payload) {
+        return payload == null || "*".equals(payload)
+                ? TimeRecordsChangedEvent.allDays()
+                : new TimeRecordsChangedEvent(LocalDate.parse(payload));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.dto.IngestionResult;
+import com.example.reportingservice.exception.InvalidTimeRecordException;
+import com.example.reportingservice.model.TimeRecord;
+import com.example.reportingservice.repository.TimeRecordBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk ingestion of time records. The incoming stream is cut into batches that are written one
+ * at a time, each in its own transaction, and the next batch is only requested from the client
+ * once the previous one is written. Every record is an idempotent upsert on its id, so a failed
+ * import can simply be sent again.
+ */
+@Service
+@Slf4j
+public class TimeRecordIngestionService {
+
+    private final TimeRecordBatchRepository batchRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Timer batchTimer;
+    private final Counter recordCounter;
+
+    public TimeRecordIngestionService(TimeRecordBatchRepository batchRepository,
+                                      TransactionalOperator transactionalOperator,
+                                      MeterRegistry meterRegistry) {
+        this.batchRepository = batchRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.batchTimer = Timer.builder("time_records.ingest.batch")
+                .description("Time to write one batch of ingested time records")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.recordCounter = Counter.builder("time_records.ingest.records")
+                .description("Ingested time records")
+                .register(meterRegistry);
+    }
+
+    public Mono<IngestionResult> ingest(Flux<TimeRecord> records, int batchSize) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            IngestionStats stats = new IngestionStats();
+            return records
+                    .doOnNext(TimeRecordIngestionService::validate)
+                    .buffer(batchSize)
+                    // Prefetch of one: a single batch is buffered while the previous one is written
+                    .concatMap(this::writeBatch, 1)
+                    .doOnNext(stats::add)
+                    .then(Mono.fromSupplier(() -> stats.toResult(System.nanoTime() - started)))
+                    .doOnNext(result -> log.info("Ingested {} time records in {} batches, {} records/s",
+                            result.getRecords(), result.getBatches(), Math.round(result.getRecordsPerSecond())));
+        });
+    }
+
+    private Mono<BatchWrite> writeBatch(List<TimeRecord> batch) {
+        List<TimeRecord> records = lastPerId(batch);
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return transactionalOperator.transactional(batchRepository.upsert(records))
+                    // The only constraints the batch can violate are its foreign keys
+                    .onErrorMap(DataIntegrityViolationException.class, error -> new InvalidTimeRecordException(
+                            "Time records reference unknown employees or projects.", error))
+                    .map(written -> new BatchWrite(batch.size(), System.nanoTime() - started));
+        }).doOnNext(write -> {
+            batchTimer.record(write.nanos(), TimeUnit.NANOSECONDS);
+            recordCounter.increment(write.records());
+            log.debug("Wrote batch of {} time records in {} ms", write.records(), write.nanos() / 1_000_000);
+        });
+    }
+
+    /**
+     * A batch may carry the same id more than once; like sequential upserts, the last one wins.
+     */
+    private static List<TimeRecord> lastPerId(List<TimeRecord> batch) {
+        Map<Long, TimeRecord> byId = new LinkedHashMap<>();
+        for (TimeRecord record : batch) {
+            byId.put(record.getId(), record);
+        }
+        return byId.size() == batch.size() ? batch : new ArrayList<>(byId.values());
+    }
+
+    private static void validate(TimeRecord record) {
+        if (record.getId() == null || record.getEmployeeId() == null || record.getProjectId() == null
+                || record.getTimeFrom() == null || record.getTimeTo() == null) {
+            throw new InvalidTimeRecordException("Time record " + record.getId() + " is missing required fields.");
+        }
+        if (record.getTimeTo().isBefore(record.getTimeFrom())) {
+            throw new InvalidTimeRecordException("Time record " + record.getId() + " ends before it starts.");
+        }
+    }
+
+    private record BatchWrite(int records, long nanos) {
+    }
+
+    private static final class IngestionStats {
+        private long records;
+        private int batches;
+        private long totalNanos;
+        private long maxNanos;
+
+        void add(BatchWrite write) {
+            records += write.records();
+            batches++;
+            totalNanos += write.nanos();
+            maxNanos = Math.max(maxNanos, write.nanos());
+        }
+
+        IngestionResult toResult(long elapsedNanos) {
+            double elapsedSeconds = elapsedNanos / 1e9;
+            return new IngestionResult(
+                    records,
+                    batches,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    elapsedSeconds > 0 ? records / elapsedSeconds : 0,
+                    batches > 0 ? totalNanos / 1e6 / batches : 0,
+                    maxNanos / 1e6);
+        }
+    }
+}
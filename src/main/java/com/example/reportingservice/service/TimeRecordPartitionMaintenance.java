@@ -0,0 +1,45 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.config.ReportingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps monthly {@code time_record} partitions created ahead of time, so new records
+ * do not pile up in the default partition.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TimeRecordPartitionMaintenance {
+
+    private final DatabaseClient databaseClient;
+    private final ReportingProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions().subscribe();
+    }
+
+    @Scheduled(cron = "${reporting.partitions.maintenance-cron:0 0 3 * * *}")
+    public void onSchedule() {
+        ensurePartitions().subscribe();
+    }
+
+    public Mono<Integer> ensurePartitions() {
+        int monthsAhead = properties.getPartitions().getMonthsAhead();
+        return databaseClient.sql("SELECT ensure_time_record_partitions(:monthsAhead) AS created")
+                .bind("monthsAhead", monthsAhead)
+                .map((row, metadata) -> row.get("created", Integer.class))
+                .one()
+                .doOnNext(created -> log.info("Ensured time_record partitions {} months ahead, created {}", monthsAhead, created))
+                .doOnError(error -> log.error("Failed to create time_record partitions", error))
+                .onErrorResume(error -> Mono.empty());
+    }
+}
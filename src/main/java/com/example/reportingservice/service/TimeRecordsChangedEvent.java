@@ -0,0 +1,19 @@
+package com.example.reportingservice.service;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Published when the hours of a day changed in the database.
+ */
+@Value
+public class TimeRecordsChangedEvent {
+
+    /** The changed day, or {@code null} when any day may have changed. */
+    LocalDate day;
+
+    public static TimeRecordsChangedEvent allDays() {
+        return new TimeRecordsChangedEvent(null);
+    }
+}
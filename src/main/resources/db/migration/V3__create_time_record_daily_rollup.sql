@@ -0,0 +1,109 @@
+-- Daily rollup of time_record used by the report queries.
+-- Kept up to date by row-level triggers on time_record; rebuild_time_record_daily()
+-- recomputes it from scratch and time_record_daily_drift lists any mismatch.
+
+CREATE TABLE time_record_daily (
+    employee_id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    seconds BIGINT NOT NULL,
+    record_count INT NOT NULL,
+    PRIMARY KEY (employee_id, project_id, day),
+    FOREIGN KEY (employee_id) REFERENCES employee(id),
+    FOREIGN KEY (project_id) REFERENCES project(id)
+);
+
+-- Duration of a single time record in whole seconds
+CREATE FUNCTION time_record_seconds(time_from TIMESTAMP, time_to TIMESTAMP) RETURNS BIGINT AS $$
+    SELECT ROUND(EXTRACT(EPOCH FROM (time_to - time_from)))::BIGINT
+$$ LANGUAGE SQL IMMUTABLE;
+
+-- Adds (or with negative values, removes) records to one rollup row
+CREATE FUNCTION time_record_daily_apply(p_employee_id BIGINT, p_project_id BIGINT, p_day DATE,
+                                        p_seconds BIGINT, p_records INT) RETURNS VOID AS $$
+BEGIN
+    INSERT INTO time_record_daily AS d (employee_id, project_id, day, seconds, record_count)
+    VALUES (p_employee_id, p_project_id, p_day, p_seconds, p_records)
+    ON CONFLICT (employee_id, project_id, day) DO UPDATE
+        SET seconds = d.seconds + EXCLUDED.seconds,
+            record_count = d.record_count + EXCLUDED.record_count;
+
+    IF p_records < 0 THEN
+        DELETE FROM time_record_daily
+        WHERE employee_id = p_employee_id
+          AND project_id = p_project_id
+          AND day = p_day
+          AND record_count <= 0;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_record_daily_maintain() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM time_record_daily_apply(OLD.employee_id, OLD.project_id, OLD.time_from::DATE,
+                                        -time_record_seconds(OLD.time_from, OLD.time_to), -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM time_record_daily_apply(NEW.employee_id, NEW.project_id, NEW.time_from::DATE,
+                                        time_record_seconds(NEW.time_from, NEW.time_to), 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_record_daily_truncate() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE time_record_daily;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER time_record_daily_maintain
+    AFTER INSERT OR UPDATE OR DELETE ON time_record
+    FOR EACH ROW EXECUTE FUNCTION time_record_daily_maintain();
+
+CREATE TRIGGER time_record_daily_truncate
+    AFTER TRUNCATE ON time_record
+    FOR EACH STATEMENT EXECUTE FUNCTION time_record_daily_truncate();
+
+-- Recomputes the whole rollup from time_record, blocking writers while it runs
+CREATE FUNCTION rebuild_time_record_daily() RETURNS BIGINT AS $$
+DECLARE
+    rebuilt_rows BIGINT;
+BEGIN
+    LOCK TABLE time_record IN SHARE MODE;
+    DELETE FROM time_record_daily;
+    INSERT INTO time_record_daily (employee_id, project_id, day, seconds, record_count)
+    SELECT employee_id, project_id, time_from::DATE, SUM(time_record_seconds(time_from, time_to)), COUNT(*)
+    FROM time_record
+    GROUP BY employee_id, project_id, time_from::DATE;
+    GET DIAGNOSTICS rebuilt_rows = ROW_COUNT;
+    RETURN rebuilt_rows;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rollup rows that do not match the raw time_record aggregates
+CREATE VIEW time_record_daily_drift AS
+SELECT COALESCE(expected.employee_id, actual.employee_id) AS employee_id,
+       COALESCE(expected.project_id, actual.project_id) AS project_id,
+       COALESCE(expected.day, actual.day) AS day,
+       expected.seconds AS expected_seconds,
+       actual.seconds AS actual_seconds,
+       expected.record_count AS expected_records,
+       actual.record_count AS actual_records
+FROM (
+    SELECT employee_id, project_id, time_from::DATE AS day,
+           SUM(time_record_seconds(time_from, time_to)) AS seconds, COUNT(*)::INT AS record_count
+    FROM time_record
+    GROUP BY employee_id, project_id, time_from::DATE
+) expected
+FULL OUTER JOIN time_record_daily actual
+    ON actual.employee_id = expected.employee_id
+   AND actual.project_id = expected.project_id
+   AND actual.day = expected.day
+WHERE expected.seconds IS DISTINCT FROM actual.seconds
+   OR expected.record_count IS DISTINCT FROM actual.record_count;
+
+-- Backfill existing data
+SELECT rebuild_time_record_daily();
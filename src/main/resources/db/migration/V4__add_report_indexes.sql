@@ -0,0 +1,7 @@
+-- Indexes for range scans of an employee's or a project's records
+CREATE INDEX idx_time_record_employee_time_from ON time_record (employee_id, time_from);
+CREATE INDEX idx_time_record_project_time_from ON time_record (project_id, time_from);
+
+-- Rollup lookups: employee filters use the primary key (employee_id, project_id, day)
+CREATE INDEX idx_time_record_daily_day ON time_record_daily (day);
+CREATE INDEX idx_time_record_daily_project_day ON time_record_daily (project_id, day);
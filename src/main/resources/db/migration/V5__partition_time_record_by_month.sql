@@ -0,0 +1,146 @@
+-- Turn time_record into a table range-partitioned by time_from month.
+-- Existing rows are copied into monthly partitions; the daily rollup already matches
+-- them, so its triggers are only attached to the new table after the copy.
+
+DROP VIEW time_record_daily_drift;
+DROP TRIGGER time_record_daily_maintain ON time_record;
+DROP TRIGGER time_record_daily_truncate ON time_record;
+
+ALTER TABLE time_record RENAME TO time_record_unpartitioned;
+
+CREATE TABLE time_record (
+    id BIGINT NOT NULL,
+    employee_id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    time_from TIMESTAMP NOT NULL,
+    time_to TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, time_from),
+    FOREIGN KEY (employee_id) REFERENCES employee(id),
+    FOREIGN KEY (project_id) REFERENCES project(id)
+) PARTITION BY RANGE (time_from);
+
+-- Catches rows outside the created months; create_time_record_partition moves them out again
+CREATE TABLE time_record_default PARTITION OF time_record DEFAULT;
+
+-- Creates the partition for the month containing p_month (named time_record_pYYYY_MM).
+-- Rows of that month already stored in the default partition are moved into it.
+CREATE FUNCTION create_time_record_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', p_month);
+    month_end TIMESTAMP := date_trunc('month', p_month) + INTERVAL '1 month';
+    partition_name TEXT := 'time_record_p' || to_char(month_start, 'YYYY_MM');
+    moved time_record[];
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM time_record_default WHERE time_from >= month_start AND time_from < month_end) THEN
+        WITH deleted AS (
+            DELETE FROM time_record_default
+            WHERE time_from >= month_start AND time_from < month_end
+            RETURNING id, employee_id, project_id, time_from, time_to
+        )
+        SELECT array_agg(ROW(deleted.*)::time_record) INTO moved FROM deleted;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF time_record FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_end);
+
+    IF moved IS NOT NULL THEN
+        INSERT INTO time_record SELECT * FROM unnest(moved);
+    END IF;
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates partitions from the current month up to p_months_ahead months in the future
+CREATE FUNCTION ensure_time_record_partitions(p_months_ahead INT) RETURNS INT AS $$
+DECLARE
+    created INT := 0;
+BEGIN
+    FOR i IN 0..p_months_ahead LOOP
+        IF create_time_record_partition((date_trunc('month', now()) + i * INTERVAL '1 month')::DATE) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month holding existing data, then the current and upcoming months
+SELECT create_time_record_partition(month::DATE)
+FROM generate_series(
+        (SELECT date_trunc('month', MIN(time_from)) FROM time_record_unpartitioned),
+        (SELECT date_trunc('month', MAX(time_from)) FROM time_record_unpartitioned),
+        INTERVAL '1 month') AS month;
+SELECT ensure_time_record_partitions(3);
+
+INSERT INTO time_record (id, employee_id, project_id, time_from, time_to)
+SELECT id, employee_id, project_id, time_from, time_to FROM time_record_unpartitioned;
+
+DROP TABLE time_record_unpartitioned;
+
+CREATE INDEX idx_time_record_employee_time_from ON time_record (employee_id, time_from);
+CREATE INDEX idx_time_record_project_time_from ON time_record (project_id, time_from);
+
+CREATE TRIGGER time_record_daily_maintain
+    AFTER INSERT OR UPDATE OR DELETE ON time_record
+    FOR EACH ROW EXECUTE FUNCTION time_record_daily_maintain();
+
+CREATE TRIGGER time_record_daily_truncate
+    AFTER TRUNCATE ON time_record
+    FOR EACH STATEMENT EXECUTE FUNCTION time_record_daily_truncate();
+
+-- Rebuild and drift check take an optional day range; bounded calls only scan the matching partitions
+DROP FUNCTION rebuild_time_record_daily();
+
+CREATE FUNCTION rebuild_time_record_daily(p_from DATE DEFAULT NULL, p_to DATE DEFAULT NULL) RETURNS BIGINT AS $$
+DECLARE
+    range_start TIMESTAMP := COALESCE(p_from::TIMESTAMP, '-infinity');
+    range_end TIMESTAMP := COALESCE((p_to + 1)::TIMESTAMP, 'infinity');
+    rebuilt_rows BIGINT;
+BEGIN
+    LOCK TABLE time_record IN SHARE MODE;
+    DELETE FROM time_record_daily
+    WHERE day >= COALESCE(p_from, '-infinity') AND day <= COALESCE(p_to, 'infinity');
+    INSERT INTO time_record_daily (employee_id, project_id, day, seconds, record_count)
+    SELECT employee_id, project_id, time_from::DATE, SUM(time_record_seconds(time_from, time_to)), COUNT(*)
+    FROM time_record
+    WHERE time_from >= range_start AND time_from < range_end
+    GROUP BY employee_id, project_id, time_from::DATE;
+    GET DIAGNOSTICS rebuilt_rows = ROW_COUNT;
+    RETURN rebuilt_rows;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_record_daily_drift(p_from DATE DEFAULT NULL, p_to DATE DEFAULT NULL)
+RETURNS TABLE (employee_id BIGINT, project_id BIGINT, day DATE,
+               expected_seconds BIGINT, actual_seconds BIGINT,
+               expected_records INT, actual_records INT) AS $$
+    SELECT COALESCE(expected.employee_id, actual.employee_id),
+           COALESCE(expected.project_id, actual.project_id),
+           COALESCE(expected.day, actual.day),
+           expected.seconds::BIGINT,
+           actual.seconds,
+           expected.record_count,
+           actual.record_count
+    FROM (
+        SELECT tr.employee_id, tr.project_id, tr.time_from::DATE AS day,
+               SUM(time_record_seconds(tr.time_from, tr.time_to)) AS seconds, COUNT(*)::INT AS record_count
+        FROM time_record tr
+        WHERE tr.time_from >= COALESCE(p_from::TIMESTAMP, '-infinity')
+          AND tr.time_from < COALESCE((p_to + 1)::TIMESTAMP, 'infinity')
+        GROUP BY tr.employee_id, tr.project_id, tr.time_from::DATE
+    ) expected
+    FULL OUTER JOIN (
+        SELECT d.employee_id, d.project_id, d.day, d.seconds, d.record_count
+        FROM time_record_daily d
+        WHERE d.day >= COALESCE(p_from, '-infinity') AND d.day <= COALESCE(p_to, 'infinity')
+    ) actual
+        ON actual.employee_id = expected.employee_id
+       AND actual.project_id = expected.project_id
+       AND actual.day = expected.day
+    WHERE expected.seconds IS DISTINCT FROM actual.seconds
+       OR expected.record_count IS DISTINCT FROM actual.record_count
+$$ LANGUAGE SQL STABLE;
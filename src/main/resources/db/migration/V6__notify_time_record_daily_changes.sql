@@ -0,0 +1,52 @@
+-- Publish rollup changes on the time_record_daily_changed channel so report caches can be invalidated.
+-- The payload is the changed day, or '*' when any day may have changed. Postgres folds identical
+-- notifications of one transaction, so a bulk write sends each changed day once at commit.
+
+CREATE OR REPLACE FUNCTION time_record_daily_apply(p_employee_id BIGINT, p_project_id BIGINT, p_day DATE,
+                                                   p_seconds BIGINT, p_records INT) RETURNS VOID AS $$
+BEGIN
+    INSERT INTO time_record_daily AS d (employee_id, project_id, day, seconds, record_count)
+    VALUES (p_employee_id, p_project_id, p_day, p_seconds, p_records)
+    ON CONFLICT (employee_id, project_id, day) DO UPDATE
+        SET seconds = d.seconds + EXCLUDED.seconds,
+            record_count = d.record_count + EXCLUDED.record_count;
+
+    IF p_records < 0 THEN
+        DELETE FROM time_record_daily
+        WHERE employee_id = p_employee_id
+          AND project_id = p_project_id
+          AND day = p_day
+          AND record_count <= 0;
+    END IF;
+
+    PERFORM pg_notify('time_record_daily_changed', p_day::TEXT);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION time_record_daily_truncate() RETURNS TRIGGER AS $$
+BEGIN
+    TRUNCATE time_record_daily;
+    PERFORM pg_notify('time_record_daily_changed', '*');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION rebuild_time_record_daily(p_from DATE DEFAULT NULL, p_to DATE DEFAULT NULL) RETURNS BIGINT AS $$
+DECLARE
+    range_start TIMESTAMP := COALESCE(p_from::TIMESTAMP, '-infinity');
+    range_end TIMESTAMP := COALESCE((p_to + 1)::TIMESTAMP, 'infinity');
+    rebuilt_rows BIGINT;
+BEGIN
+    LOCK TABLE time_record IN SHARE MODE;
+    DELETE FROM time_record_daily
+    WHERE day >= COALESCE(p_from, '-infinity') AND day <= COALESCE(p_to, 'infinity');
+    INSERT INTO time_record_daily (employee_id, project_id, day, seconds, record_count)
+    SELECT employee_id, project_id, time_from::DATE, SUM(time_record_seconds(time_from, time_to)), COUNT(*)
+    FROM time_record
+    WHERE time_from >= range_start AND time_from < range_end
+    GROUP BY employee_id, project_id, time_from::DATE;
+    GET DIAGNOSTICS rebuilt_rows = ROW_COUNT;
+    PERFORM pg_notify('time_record_daily_changed', '*');
+    RETURN rebuilt_rows;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,109 @@
+-- Maintain time_record_daily once per statement from the statement's transition tables instead of
+-- once per row. A bulk insert then touches each (employee, project, day) of the rollup once.
+-- Statement triggers only fire for statements on time_record itself, so write through the parent
+-- table rather than to individual partitions.
+
+DROP TRIGGER time_record_daily_maintain ON time_record;
+DROP FUNCTION time_record_daily_maintain();
+DROP FUNCTION time_record_daily_apply(BIGINT, BIGINT, DATE, BIGINT, INT);
+
+-- Adds signed per-day deltas to the rollup, drops rows without records and notifies the changed days
+CREATE FUNCTION time_record_daily_apply(p_deltas time_record_daily[]) RETURNS VOID AS $$
+BEGIN
+    INSERT INTO time_record_daily AS d (employee_id, project_id, day, seconds, record_count)
+    SELECT employee_id, project_id, day, SUM(seconds)::BIGINT, SUM(record_count)::INT
+    FROM unnest(p_deltas)
+    GROUP BY employee_id, project_id, day
+    ON CONFLICT (employee_id, project_id, day) DO UPDATE
+        SET seconds = d.seconds + EXCLUDED.seconds,
+            record_count = d.record_count + EXCLUDED.record_count;
+
+    DELETE FROM time_record_daily d
+    USING (SELECT DISTINCT employee_id, project_id, day FROM unnest(p_deltas) WHERE record_count < 0) removed
+    WHERE d.employee_id = removed.employee_id
+      AND d.project_id = removed.project_id
+      AND d.day = removed.day
+      AND d.record_count <= 0;
+
+    PERFORM pg_notify('time_record_daily_changed', changed.day::TEXT)
+    FROM (SELECT DISTINCT day FROM unnest(p_deltas)) changed;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_record_daily_inserted() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM time_record_daily_apply(ARRAY(
+        SELECT ROW(employee_id, project_id, time_from::DATE, time_record_seconds(time_from, time_to), 1)::time_record_daily
+        FROM new_rows));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_record_daily_updated() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM time_record_daily_apply(ARRAY(
+        SELECT ROW(employee_id, project_id, time_from::DATE, -time_record_seconds(time_from, time_to), -1)::time_record_daily
+        FROM old_rows
+        UNION ALL
+        SELECT ROW(employee_id, project_id, time_from::DATE, time_record_seconds(time_from, time_to), 1)::time_record_daily
+        FROM new_rows));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION time_record_daily_deleted() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM time_record_daily_apply(ARRAY(
+        SELECT ROW(employee_id, project_id, time_from::DATE, -time_record_seconds(time_from, time_to), -1)::time_record_daily
+        FROM old_rows));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER time_record_daily_inserted
+    AFTER INSERT ON time_record
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION time_record_daily_inserted();
+
+CREATE TRIGGER time_record_daily_updated
+    AFTER UPDATE ON time_record
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION time_record_daily_updated();
+
+CREATE TRIGGER time_record_daily_deleted
+    AFTER DELETE ON time_record
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION time_record_daily_deleted();
+
+-- Same as V5, but moves rows out of the default partition through the parent table so the
+-- statement triggers see both the delete and the re-insert
+CREATE OR REPLACE FUNCTION create_time_record_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', p_month);
+    month_end TIMESTAMP := date_trunc('month', p_month) + INTERVAL '1 month';
+    partition_name TEXT := 'time_record_p' || to_char(month_start, 'YYYY_MM');
+    moved time_record[];
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    -- Without a partition for the month, all of its rows are in the default partition
+    IF EXISTS (SELECT 1 FROM time_record_default WHERE time_from >= month_start AND time_from < month_end) THEN
+        WITH deleted AS (
+            DELETE FROM time_record
+            WHERE time_from >= month_start AND time_from < month_end
+            RETURNING id, employee_id, project_id, time_from, time_to
+        )
+        SELECT array_agg(ROW(deleted.*)::time_record) INTO moved FROM deleted;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF time_record FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_end);
+
+    IF moved IS NOT NULL THEN
+        INSERT INTO time_record SELECT * FROM unnest(moved);
+    END IF;
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,10 @@
+-- Which employee's data a non-admin login user may see. Users without a row see none.
+CREATE TABLE user_employee (
+    username VARCHAR(100) PRIMARY KEY,
+    employee_id BIGINT NOT NULL REFERENCES employee(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_user_employee_employee_id ON user_employee (employee_id);
+
+INSERT INTO user_employee (username, employee_id) VALUES
+    ('user', 101);
@@ -0,0 +1,106 @@
+-- Change tracking for incremental reports. Every time record carries when and in which
+-- transaction it was last written, and deleting (or moving) records leaves a tombstone on the
+-- (employee, project, day) aggregate they belonged to. A "changed since" report returns the
+-- aggregates with a record or tombstone written by a transaction at or after its watermark.
+--
+-- Watermarks are transaction ids rather than timestamps: a transaction can commit long after its
+-- timestamp, while every transaction with an id below a snapshot's xmin has already finished.
+
+-- Constant defaults first so existing rows are not rewritten; they predate every watermark
+ALTER TABLE time_record
+    ADD COLUMN modified_at TIMESTAMP NOT NULL DEFAULT now(),
+    ADD COLUMN modified_xid XID8 NOT NULL DEFAULT '0';
+ALTER TABLE time_record ALTER COLUMN modified_xid SET DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_time_record_modified_xid ON time_record (modified_xid);
+
+-- One tombstone per aggregate, so their number is bounded like the rollup's
+CREATE TABLE time_record_tombstone (
+    employee_id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT now(),
+    deleted_xid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    PRIMARY KEY (employee_id, project_id, day)
+);
+
+CREATE INDEX idx_time_record_tombstone_deleted_xid ON time_record_tombstone (deleted_xid);
+
+CREATE FUNCTION time_record_modified() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.modified_at := now();
+    NEW.modified_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER time_record_modified
+    BEFORE UPDATE ON time_record
+    FOR EACH ROW EXECUTE FUNCTION time_record_modified();
+
+-- Records an aggregate as changed for the records an update or delete took away from it
+CREATE FUNCTION time_record_tombstone_add(p_removed time_record[]) RETURNS VOID AS $$
+BEGIN
+    INSERT INTO time_record_tombstone AS t (employee_id, project_id, day)
+    SELECT DISTINCT employee_id, project_id, time_from::DATE
+    FROM unnest(p_removed)
+    ON CONFLICT (employee_id, project_id, day) DO UPDATE
+        SET deleted_at = EXCLUDED.deleted_at,
+            deleted_xid = EXCLUDED.deleted_xid;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION time_record_daily_updated() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM time_record_daily_apply(ARRAY(
+        SELECT ROW(employee_id, project_id, time_from::DATE, -time_record_seconds(time_from, time_to), -1)::time_record_daily
+        FROM old_rows
+        UNION ALL
+        SELECT ROW(employee_id, project_id, time_from::DATE, time_record_seconds(time_from, time_to), 1)::time_record_daily
+        FROM new_rows));
+    PERFORM time_record_tombstone_add(ARRAY(SELECT ROW(o.*)::time_record FROM old_rows o));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION time_record_daily_deleted() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM time_record_daily_apply(ARRAY(
+        SELECT ROW(employee_id, project_id, time_from::DATE, -time_record_seconds(time_from, time_to), -1)::time_record_daily
+        FROM old_rows));
+    PERFORM time_record_tombstone_add(ARRAY(SELECT ROW(o.*)::time_record FROM old_rows o));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Same as V7, but moves whole rows now that time_record has more than the inserted columns
+CREATE OR REPLACE FUNCTION create_time_record_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', p_month);
+    month_end TIMESTAMP := date_trunc('month', p_month) + INTERVAL '1 month';
+    partition_name TEXT := 'time_record_p' || to_char(month_start, 'YYYY_MM');
+    moved time_record[];
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    -- Without a partition for the month, all of its rows are in the default partition
+    IF EXISTS (SELECT 1 FROM time_record_default WHERE time_from >= month_start AND time_from < month_end) THEN
+        WITH deleted AS (
+            DELETE FROM time_record
+            WHERE time_from >= month_start AND time_from < month_end
+            RETURNING *
+        )
+        SELECT array_agg(ROW(deleted.*)::time_record) INTO moved FROM deleted;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF time_record FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, month_start, month_end);
+
+    IF moved IS NOT NULL THEN
+        INSERT INTO time_record SELECT * FROM unnest(moved);
+    END IF;
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,106 @@
+package com.example.reportingservice.config;
+
+import com.example.reportingservice.config.ReportingProperties.Audit.OverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<AuditEvent> written = new CopyOnWriteArrayList<>();
+
+    @Test
+    void dropOldestKeepsTheNewestEvents() {
+        AuditLog auditLog = auditLog(OverflowPolicy.DROP_OLDEST, 4);
+
+        IntStream.rangeClosed(1, 6).forEach(i -> auditLog.record(event("/" + i)));
+        auditLog.flush();
+
+        assertThat(written).extracting(AuditEvent::getPath).containsExactly("/3", "/4", "/5", "/6");
+        assertThat(count("audit.events.enqueued")).isEqualTo(6);
+        assertThat(count("audit.events.dropped")).isEqualTo(2);
+        assertThat(count("audit.events.flushed")).isEqualTo(4);
+    }
+
+    @Test
+    void sampleThinsOutEventsOnceQueueIsHalfFull() {
+        ReportingProperties properties = properties(OverflowPolicy.SAMPLE, 8);
+        properties.getAudit().setSampleEvery(2);
+        AuditLog auditLog = new AuditLog(properties, meterRegistry, written::add);
+
+        IntStream.rangeClosed(1, 20).forEach(i -> auditLog.record(event("/" + i)));
+        auditLog.flush();
+
+        // 4 until half full, then every second event until the queue is full
+        assertThat(written).extracting(AuditEvent::getPath)
+                .containsExactly("/1", "/2", "/3", "/4", "/6", "/8", "/10", "/12");
+        assertThat(count("audit.events.dropped")).isEqualTo(12);
+    }
+
+    @Test
+    void blockGivesUpAfterTimeoutWhenWriterFallsBehind() {
+        ReportingProperties properties = properties(OverflowPolicy.BLOCK, 2);
+        properties.getAudit().setBlockTimeout(Duration.ofMillis(20));
+        AuditLog auditLog = new AuditLog(properties, meterRegistry, written::add);
+
+        auditLog.record(event("/1"));
+        auditLog.record(event("/2"));
+        long started = System.nanoTime();
+        auditLog.record(event("/3"));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        assertThat(count("audit.events.dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void blockLosesNothingWhileWriterKeepsUp() {
+        AuditLog auditLog = auditLog(OverflowPolicy.BLOCK, 16);
+        auditLog.start();
+
+        IntStream.rangeClosed(1, 1000).forEach(i -> auditLog.record(event("/" + i)));
+        auditLog.stop();
+
+        assertThat(written).hasSize(1000);
+        assertThat(count("audit.events.dropped")).isZero();
+        assertThat(count("audit.events.flushed")).isEqualTo(1000);
+    }
+
+    @Test
+    void stopWritesEverythingStillQueued() {
+        AuditLog auditLog = auditLog(OverflowPolicy.DROP_OLDEST, 1024);
+        auditLog.start();
+
+        IntStream.rangeClosed(1, 100).forEach(i -> auditLog.record(event("/" + i)));
+        auditLog.stop();
+
+        assertThat(written).extracting(AuditEvent::getPath).startsWith("/1").endsWith("/100").hasSize(100);
+        assertThat(auditLog.isRunning()).isFalse();
+    }
+
+    private AuditLog auditLog(OverflowPolicy policy, int capacity) {
+        return new AuditLog(properties(policy, capacity), meterRegistry, written::add);
+    }
+
+    private static ReportingProperties properties(OverflowPolicy policy, int capacity) {
+        ReportingProperties properties = new ReportingProperties();
+        properties.getAudit().setOverflowPolicy(policy);
+        properties.getAudit().setQueueCapacity(capacity);
+        properties.getAudit().setBatchSize(8);
+        return properties;
+    }
+
+    private double count(String counter) {
+        return meterRegistry.get(counter).counter().count();
+    }
+
+    private static AuditEvent event(String path) {
+        return new AuditEvent("GET", path, "{}", 200, 1, "user", null);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingConnectionFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Connection primaryConnection = mock(Connection.class);
+    private final ConnectionFactory primary = factory(primaryConnection);
+
+    @Test
+    void routesOnlyReadOnlyStatementsToHealthyReplicasInTurn() {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        ReadReplicas.Replica firstReplica = replica("first", factory(lagging(first, 0.5)));
+        ReadReplicas.Replica secondReplica = replica("second", factory(lagging(second, 1.0)));
+        ReadReplicas replicas = replicas(firstReplica, secondReplica);
+        replicas.check(firstReplica).block();
+        replicas.check(secondReplica).block();
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicas);
+
+        assertThat(routing.create().block()).isSameAs(primaryConnection);
+        assertThat(List.of(readOnly(routing), readOnly(routing), readOnly(routing))).containsExactly(first, second, first);
+        assertThat(meterRegistry.get("db.replica.lag").tag("replica", "second").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void pinsTheStatementsOfASessionToOneReplica() {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        ReadReplicas.Replica firstReplica = replica("first", factory(lagging(first, 0)));
+        ReadReplicas.Replica secondReplica = replica("second", factory(lagging(second, 0)));
+        ReadReplicas replicas = replicas(firstReplica, secondReplica);
+        replicas.check(firstReplica).block();
+        replicas.check(secondReplica).block();
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicas);
+        ReplicaRoutingConnectionFactory.ReadOnlySession session = ReplicaRoutingConnectionFactory.readOnlySession();
+
+        assertThat(session.isReplica()).isFalse();
+        assertThat(List.of(routing.create().contextWrite(session.context()).block(),
+                readOnly(routing),
+                routing.create().contextWrite(session.context()).block())).containsExactly(first, second, first);
+        assertThat(session.isReplica()).isTrue();
+    }
+
+    @Test
+    void sessionWithoutHealthyReplicaStaysOnThePrimary() {
+        ReadReplicas.Replica unchecked = replica("unchecked", factory(lagging(mock(Connection.class), 0)));
+        ReadReplicas replicas = replicas(unchecked);
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicas);
+        ReplicaRoutingConnectionFactory.ReadOnlySession session = ReplicaRoutingConnectionFactory.readOnlySession();
+
+        assertThat(routing.create().contextWrite(session.context()).block()).isSameAs(primaryConnection);
+        replicas.check(unchecked).block();
+
+        assertThat(routing.create().contextWrite(session.context()).block()).isSameAs(primaryConnection);
+        assertThat(session.isReplica()).isFalse();
+    }
+
+    @Test
+    void usesThePrimaryWhileReplicasLagOrAreDown() {
+        ReadReplicas.Replica lagging = replica("lagging", factory(lagging(mock(Connection.class), 45)));
+        ReadReplicas.Replica unchecked = replica("unchecked", factory(mock(Connection.class)));
+        ReadReplicas replicas = replicas(lagging, unchecked);
+        replicas.check(lagging).block();
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicas);
+
+        assertThat(lagging.isHealthy()).isFalse();
+        assertThat(readOnly(routing)).isSameAs(primaryConnection);
+        assertThat(meterRegistry.get("db.replica.healthy").tag("replica", "lagging").gauge().value()).isZero();
+    }
+
+    @Test
+    void fallsBackToThePrimaryAndMarksTheReplicaDownWhenItsConnectionFails() {
+        Connection replicaConnection = lagging(mock(Connection.class), 0);
+        ConnectionFactory replicaFactory = mock(ConnectionFactory.class);
+        when(replicaFactory.create()).thenAnswer(invocation -> Mono.just(replicaConnection))
+                .thenAnswer(invocation -> Mono.error(new IllegalStateException("connection refused")));
+        ReadReplicas.Replica replica = replica("failing", replicaFactory);
+        ReadReplicas replicas = replicas(replica);
+        replicas.check(replica).block();
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(primary, replicas);
+
+        assertThat(readOnly(routing)).isSameAs(primaryConnection);
+        assertThat(replica.isHealthy()).isFalse();
+    }
+
+    private ReadReplicas replicas(ReadReplicas.Replica... replicas) {
+        ReportingProperties.Replicas properties = new ReportingProperties.Replicas();
+        properties.setMaxLag(Duration.ofSeconds(30));
+        return new ReadReplicas(List.of(replicas), properties, meterRegistry);
+    }
+
+    private static ReadReplicas.Replica replica(String name, ConnectionFactory connectionFactory) {
+        return new ReadReplicas.Replica(name, connectionFactory, () -> { });
+    }
+
+
+    private static Connection readOnly(ReplicaRoutingConnectionFactory routing) {
+        return routing.create().contextWrite(ReplicaRoutingConnectionFactory.readOnly()).block();
+    }
+
+    private static ConnectionFactory factory(Connection connection) {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.create()).thenAnswer(invocation -> Mono.just(connection));
+        return connectionFactory;
+    }
+
+    /**
+     * Answers the health check's lag query with {@code lagSeconds}.
+     */
+    @SuppressWarnings("unchecked")
+    private static Connection lagging(Connection connection, double lagSeconds) {
+        Statement statement = mock(Statement.class);
+        Result result = mock(Result.class);
+        Row row = mock(Row.class);
+        when(connection.createStatement(anyString())).thenReturn(statement);
+        when(connection.close()).thenReturn(Mono.empty());
+        when(statement.execute()).thenAnswer(invocation -> Flux.just(result));
+        when(row.get("lag_seconds", Double.class)).thenReturn(lagSeconds);
+        when(result.map(any(BiFunction.class))).thenAnswer(invocation ->
+                Flux.just(((BiFunction<Row, RowMetadata, ?>) invocation.getArgument(0)).apply(row, mock(RowMetadata.class))));
+        return connection;
+    }
+}
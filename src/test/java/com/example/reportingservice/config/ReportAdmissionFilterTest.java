@@ -0,0 +1,69 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportAdmissionFilter filter = new ReportAdmissionFilter(properties(), meterRegistry);
+
+    @Test
+    void rejectsAnonymousReportRequestsOverTheLimitWith429() {
+        Sinks.Empty<Void> firstReport = Sinks.empty();
+        filter.filter(exchange("/api/v1/report/employees"), exchange -> firstReport.asMono()).subscribe();
+
+        MockServerWebExchange rejected = exchange("/api/v1/report/projects");
+        filter.filter(rejected, exchange -> Mono.error(new AssertionError("must not run"))).block();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(rejected.getResponse().getBodyAsString().block()).contains("retry later");
+        assertThat(meterRegistry.get("report.admission.rejected").tag("reason", "user-limit").counter().count()).isEqualTo(1);
+
+        firstReport.tryEmitEmpty();
+        MockServerWebExchange admitted = exchange("/api/v1/report/projects");
+        filter.filter(admitted, okChain()).block();
+        assertThat(admitted.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void leavesOtherRequestsAlone() {
+        Sinks.Empty<Void> report = Sinks.empty();
+        filter.filter(exchange("/api/v1/report/employees"), exchange -> report.asMono()).subscribe();
+
+        MockServerWebExchange other = exchange("/api/v1/time-records");
+        filter.filter(other, okChain()).block();
+
+        assertThat(other.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static WebFilterChain okChain() {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    private static ReportingProperties properties() {
+        ReportingProperties properties = new ReportingProperties();
+        properties.getAdmission().setMaxPerUser(1);
+        properties.getAdmission().setRetryAfter(Duration.ofSeconds(3));
+        return properties;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportAdmissionTest {
+
+    // Long enough that waiters never time out while a test inspects them; timeouts run on virtual time
+    private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportAdmission admission = new ReportAdmission(properties(), meterRegistry);
+
+    @Test
+    void admitsUpToTheGlobalLimitAndQueuesTheRest() {
+        StepVerifier.create(admission.acquire("tom")).verifyComplete();
+        StepVerifier.create(admission.acquire("anna")).verifyComplete();
+
+        Disposable waiting = admission.acquire("eva").subscribe();
+
+        assertThat(admission.running()).isEqualTo(2);
+        assertThat(admission.queued()).isEqualTo(1);
+        waiting.dispose();
+        assertThat(admission.queued()).isZero();
+    }
+
+    @Test
+    void releaseAdmitsTheNextWaiter() {
+        admission.acquire("tom").block();
+        admission.acquire("anna").block();
+        boolean[] admitted = new boolean[1];
+        admission.acquire("eva").subscribe(null, null, () -> admitted[0] = true);
+
+        admission.release("tom");
+
+        assertThat(admitted[0]).isTrue();
+        assertThat(admission.running()).isEqualTo(2);
+        assertThat(admission.queued()).isZero();
+        assertThat(meterRegistry.get("report.admission.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUserOverTheirOwnLimit() {
+        admission.acquire("tom").block();
+
+        StepVerifier.create(admission.acquire("tom"))
+                .verifyErrorSatisfies(error -> assertThat(((ReportAdmission.RejectedException) error).getRejection())
+                        .isEqualTo(ReportAdmission.Rejection.USER_LIMIT));
+        assertThat(rejected("user-limit")).isEqualTo(1);
+
+        admission.release("tom");
+        StepVerifier.create(admission.acquire("tom")).verifyComplete();
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() {
+        admission.acquire("tom").block();
+        admission.acquire("anna").block();
+        Disposable waiting = admission.acquire("eva").subscribe();
+
+        StepVerifier.create(admission.acquire("paul"))
+                .verifyErrorSatisfies(error -> assertThat(((ReportAdmission.RejectedException) error).getRejection())
+                        .isEqualTo(ReportAdmission.Rejection.QUEUE_FULL));
+        assertThat(rejected("queue-full")).isEqualTo(1);
+        waiting.dispose();
+    }
+
+    @Test
+    void rejectsAndDequeuesWaitersAfterMaxWait() {
+        admission.acquire("tom").block();
+        admission.acquire("anna").block();
+
+        StepVerifier.withVirtualTime(() -> admission.acquire("eva"))
+                .expectSubscription()
+                .thenAwait(MAX_WAIT)
+                .verifyErrorSatisfies(error -> assertThat(((ReportAdmission.RejectedException) error).getRejection())
+                        .isEqualTo(ReportAdmission.Rejection.TIMEOUT));
+        assertThat(rejected("timeout")).isEqualTo(1);
+        assertThat(admission.queued()).isZero();
+
+        admission.release("tom");
+        assertThat(admission.running()).isEqualTo(1);
+        StepVerifier.create(admission.acquire("eva")).verifyComplete();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("report.admission.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static ReportingProperties.Admission properties() {
+        ReportingProperties.Admission properties = new ReportingProperties.Admission();
+        properties.setMaxConcurrent(2);
+        properties.setMaxPerUser(1);
+        properties.setQueueCapacity(1);
+        properties.setMaxWait(MAX_WAIT);
+        return properties;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCompressionFilterTest {
+
+    private static final String LINE = "{\"name\":\"Tom\",\"hoursSpent\":[]}\n";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportCompressionFilter filter = new ReportCompressionFilter(new ReportingProperties(), meterRegistry);
+
+    @Test
+    void negotiatesByQualityPreferringZstdOnTies() {
+        assertThat(ReportCompressionFilter.negotiate("gzip, deflate, br, zstd", true)).isEqualTo(ResponseCompressor.Coding.ZSTD);
+        assertThat(ReportCompressionFilter.negotiate("gzip, deflate, br, zstd", false)).isEqualTo(ResponseCompressor.Coding.GZIP);
+        assertThat(ReportCompressionFilter.negotiate("zstd;q=0.5, gzip", true)).isEqualTo(ResponseCompressor.Coding.GZIP);
+        assertThat(ReportCompressionFilter.negotiate("gzip;q=0, zstd;q=0", true)).isNull();
+        assertThat(ReportCompressionFilter.negotiate("*", true)).isEqualTo(ResponseCompressor.Coding.GZIP);
+        assertThat(ReportCompressionFilter.negotiate("gzip;q=0, *", true)).isNull();
+        assertThat(ReportCompressionFilter.negotiate("identity, br", true)).isNull();
+        assertThat(ReportCompressionFilter.negotiate(null, true)).isNull();
+    }
+
+    @Test
+    void compressesReportResponses() throws Exception {
+        MockServerWebExchange exchange = exchange("/api/v1/report/employees");
+
+        filter.filter(exchange, writeBody(HttpStatus.OK, MediaType.APPLICATION_NDJSON)).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        byte[] body = DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return bytes;
+                })
+                .block();
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LINE.repeat(3));
+        }
+        assertThat(meterRegistry.get("report.compression.bytes.in").tag("coding", "gzip").counter().count())
+                .isEqualTo(LINE.length() * 3);
+    }
+
+    @Test
+    void leavesErrorsAndOtherPathsUncompressed() {
+        MockServerWebExchange error = exchange("/api/v1/report/employees");
+        filter.filter(error, writeBody(HttpStatus.BAD_REQUEST, MediaType.APPLICATION_JSON)).block();
+        assertThat(error.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(error.getResponse().getBodyAsString().block()).isEqualTo(LINE.repeat(3));
+
+        MockServerWebExchange other = exchange("/api/v1/time-records");
+        filter.filter(other, writeBody(HttpStatus.OK, MediaType.APPLICATION_NDJSON)).block();
+        assertThat(other.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(other.getResponse().getHeaders().containsKey(HttpHeaders.VARY)).isFalse();
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+    }
+
+    private static WebFilterChain writeBody(HttpStatus status, MediaType contentType) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            exchange.getResponse().getHeaders().setContentType(contentType);
+            return exchange.getResponse().writeWith(Flux.range(0, 3)
+                    .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(LINE.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.reportingservice.config;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCompressorTest {
+
+    private static final Duration NO_TICKS = Duration.ofHours(1);
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void gzipBodyIsFlushedAtRecordBoundariesOnceFlushSizeIsPending() throws Exception {
+        List<String> lines = lines(10, 100);
+        ResponseCompressor compressor = new ResponseCompressor(ResponseCompressor.Coding.GZIP, 1, 250, NO_TICKS);
+
+        List<byte[]> chunks = compress(compressor, lines);
+
+        // Flushes after lines 3, 6 and 9, then the rest with the trailer
+        assertThat(chunks).hasSize(4);
+        assertThat(inflateGzipPrefix(chunks.get(0))).isEqualTo(String.join("", lines.subList(0, 3)));
+        assertThat(decompress(new GZIPInputStream(new ByteArrayInputStream(concat(chunks))))).isEqualTo(String.join("", lines));
+    }
+
+    @Test
+    void zstdBodyIsOneFrameOfFlushedBlocks() throws Exception {
+        List<String> lines = lines(10, 100);
+        ResponseCompressor compressor = new ResponseCompressor(ResponseCompressor.Coding.ZSTD, 3, 500, NO_TICKS);
+
+        List<byte[]> chunks = compress(compressor, lines);
+
+        assertThat(chunks).hasSize(3);
+        assertThat(decompress(new ZstdInputStream(new ByteArrayInputStream(concat(chunks))))).isEqualTo(String.join("", lines));
+    }
+
+    @Test
+    void pendingRecordsAreFlushedAfterFlushInterval() {
+        ResponseCompressor compressor = new ResponseCompressor(ResponseCompressor.Coding.GZIP, 1, 1 << 20, Duration.ofMillis(50));
+
+        StepVerifier.create(compressor.compress(
+                        Flux.just(buffer("{\"name\":\"Tom\"}\n")).concatWith(Flux.never()), bufferFactory, in -> { }, out -> { }))
+                .assertNext(chunk -> assertThat(inflateGzipPrefix(bytes(chunk))).isEqualTo("{\"name\":\"Tom\"}\n"))
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void reportsUncompressedAndCompressedBytes() {
+        AtomicLong in = new AtomicLong();
+        AtomicLong out = new AtomicLong();
+        ResponseCompressor compressor = new ResponseCompressor(ResponseCompressor.Coding.GZIP, 1, 250, NO_TICKS);
+
+        long written = compressor.compress(Flux.fromIterable(lines(10, 100)).map(this::buffer), bufferFactory, in::addAndGet, out::addAndGet)
+                .map(chunk -> (long) bytes(chunk).length)
+                .reduce(0L, Long::sum)
+                .block();
+
+        assertThat(in).hasValue(1000);
+        assertThat(out).hasValue(written);
+    }
+
+    private static List<String> lines(int count, int length) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> ("{\"name\":\"Employee " + i + "\",\"hoursSpent\":[]}").repeat(length))
+                .map(line -> line.substring(0, length - 1) + "\n")
+                .toList();
+    }
+
+    private List<byte[]> compress(ResponseCompressor compressor, List<String> lines) {
+        return compressor.compress(Flux.fromIterable(lines).map(this::buffer), bufferFactory, in -> { }, out -> { })
+                .map(ResponseCompressorTest::bytes)
+                .collectList()
+                .block();
+    }
+
+    private DataBuffer buffer(String line) {
+        return bufferFactory.wrap(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private static byte[] concat(List<byte[]> chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        chunks.forEach(out::writeBytes);
+        return out.toByteArray();
+    }
+
+    /** Inflates the deflate data after the 10 byte gzip header of an unfinished member. */
+    private static String inflateGzipPrefix(byte[] chunk) {
+        try {
+            Inflater inflater = new Inflater(true);
+            inflater.setInput(chunk, 10, chunk.length - 10);
+            byte[] output = new byte[64 * 1024];
+            int length = inflater.inflate(output);
+            inflater.end();
+            return new String(output, 0, length, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String decompress(InputStream input) throws Exception {
+        try (input) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reportingservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlMetricsListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlMetricsListener listener = new SqlMetricsListener(meterRegistry, new ReportingProperties.SqlMetrics());
+
+    @Test
+    void normalizationCollapsesWhitespaceAndLiteralsButKeepsParametersAndIdentifiers() {
+        String normalized = SqlMetricsListener.normalize("""
+                SELECT SUM(d.seconds) / 3600.0, 'it''s'
+                FROM time_record_p2024_02 d
+                WHERE d.employee_id = $1   AND d.project_id IN (1, 22)""");
+
+        assertThat(normalized).isEqualTo(
+                "SELECT SUM(d.seconds) / ?, ? FROM time_record_p2024_02 d WHERE d.employee_id = $1 AND d.project_id IN (?, ?)");
+    }
+
+    @Test
+    void statementsDifferingOnlyInLiteralsShareOneFingerprint() {
+        listener.afterQuery(execution("SELECT * FROM employee WHERE id = 101", Duration.ofMillis(4), 1));
+        listener.afterQuery(execution("SELECT *\n  FROM employee WHERE id = 102", Duration.ofMillis(6), 3));
+
+        Timer timer = meterRegistry.get(SqlMetricsListener.QUERY_METRIC).tag("outcome", "success").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.getId().getTag("statement")).isEqualTo("SELECT * FROM employee WHERE id = ?");
+        DistributionSummary rows = meterRegistry.get(SqlMetricsListener.ROWS_METRIC).summary();
+        assertThat(rows.count()).isEqualTo(2);
+        assertThat(rows.totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void failuresAreRecordedWithErrorOutcome() {
+        QueryExecutionInfo execution = execution("SELECT 1", Duration.ofMillis(2), 0);
+        when(execution.getThrowable()).thenReturn(new IllegalStateException("boom"));
+
+        listener.afterQuery(execution);
+
+        assertThat(meterRegistry.get(SqlMetricsListener.QUERY_METRIC).tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(SqlMetricsListener.ROWS_METRIC).summary().count()).isZero();
+    }
+
+    private static QueryExecutionInfo execution(String query, Duration duration, int rows) {
+        QueryExecutionInfo execution = mock(QueryExecutionInfo.class);
+        when(execution.getQueries()).thenReturn(List.of(new QueryInfo(query)));
+        when(execution.getExecuteDuration()).thenReturn(duration);
+        when(execution.getCurrentResultCount()).thenReturn(rows);
+        return execution;
+    }
+}
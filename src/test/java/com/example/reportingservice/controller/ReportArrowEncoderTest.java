@@ -0,0 +1,164 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.dto.ProjectReport;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportArrowEncoderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 2, 1);
+
+    private final ReportArrowEncoder encoder = new ReportArrowEncoder();
+    private final BufferAllocator allocator = new RootAllocator();
+
+    @AfterEach
+    void closeAllocator() {
+        allocator.close();
+    }
+
+    @Test
+    void employeeReportsAreReadableArrowStreamOfFlattenedRows() throws Exception {
+        byte[] stream = encode(EmployeeReport.class,
+                new EmployeeReport("Tom", List.of(
+                        new DailyHours(DAY, "Sample Project A", 32400),
+                        new DailyHours(DAY.plusDays(1), "Sample Project A", 32100))),
+                new EmployeeReport("Spike", List.of()),
+                new EmployeeReport("Zoë 東京", List.of(new DailyHours(DAY, "Projekt Ü", 18))));
+
+        List<String> rows = readRows(stream);
+
+        assertThat(rows).containsExactly(
+                "Tom|2024-02-01|Sample Project A|9.00",
+                "Tom|2024-02-02|Sample Project A|8.92",
+                "Spike|null|null|null",
+                "Zoë 東京|2024-02-01|Projekt Ü|0.01");
+    }
+
+    @Test
+    void projectReportsHaveNoProjectColumn() throws Exception {
+        byte[] stream = encode(ProjectReport.class,
+                new ProjectReport("Sample Project B", List.of(new ProjectDailyHours(DAY, 34200))));
+
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            assertThat(reader.getVectorSchemaRoot().getSchema().getFields())
+                    .extracting(field -> field.getName() + ":" + field.getType().getTypeID())
+                    .containsExactly("project:Utf8", "day:Date", "hours:Decimal");
+            assertThat(((ArrowType.Decimal) reader.getVectorSchemaRoot().getSchema().getFields().get(2).getType()).getScale()).isEqualTo(2);
+        }
+        assertThat(readRows(stream)).containsExactly("Sample Project B|2024-02-01|9.50");
+    }
+
+    @Test
+    void keyedReportsStartWithTheIdColumn() throws Exception {
+        byte[] stream = encode(KeyedEmployeeReport.class,
+                new KeyedEmployeeReport(101, "Tom", List.of(
+                        new DailyHours(DAY, "Sample Project A", 32400),
+                        new DailyHours(DAY.plusDays(1), "Sample Project A", 32100))),
+                new KeyedEmployeeReport(103, "Tom", List.of()));
+
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema().getFields())
+                    .extracting(field -> field.getName() + ":" + field.getType().getTypeID())
+                    .containsExactly("employee_id:Int", "employee:Utf8", "day:Date", "project:Utf8", "hours:Decimal");
+            assertThat(reader.loadNextBatch()).isTrue();
+            BigIntVector ids = (BigIntVector) root.getVector("employee_id");
+            assertThat(IntStream.range(0, root.getRowCount()).mapToObj(ids::get)).containsExactly(101L, 101L, 103L);
+            assertThat(((DecimalVector) root.getVector("hours")).getObject(1)).isEqualByComparingTo("8.92");
+        }
+    }
+
+    @Test
+    void largeReportsAreSplitIntoRecordBatches() throws Exception {
+        int employees = ReportArrowEncoder.BATCH_ROWS / 10 + 5;
+        Object[] reports = IntStream.range(0, employees)
+                .mapToObj(employee -> new EmployeeReport("Employee " + employee, IntStream.range(0, 10)
+                        .mapToObj(day -> new DailyHours(DAY.plusDays(day), "Project", 3600L * day))
+                        .toList()))
+                .toArray();
+
+        byte[] stream = encode(EmployeeReport.class, reports);
+
+        int batches = 0;
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            while (reader.loadNextBatch()) {
+                batches++;
+            }
+        }
+        assertThat(batches).isEqualTo(2);
+        assertThat(readRows(stream)).hasSize(employees * 10).endsWith("Employee " + (employees - 1) + "|2024-02-10|Project|9.00");
+    }
+
+    @Test
+    void emptyReportIsSchemaOnly() throws Exception {
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(encode(EmployeeReport.class)), allocator)) {
+            assertThat(reader.getVectorSchemaRoot().getSchema().getFields()).hasSize(4);
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    private List<String> readRows(byte[] stream) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            boolean employees = root.getFieldVectors().size() == 4;
+            while (reader.loadNextBatch()) {
+                VarCharVector names = (VarCharVector) root.getVector(0);
+                DateDayVector days = (DateDayVector) root.getVector("day");
+                DecimalVector hours = (DecimalVector) root.getVector("hours");
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    StringBuilder line = new StringBuilder(new String(names.get(row), StandardCharsets.UTF_8));
+                    line.append('|').append(days.isNull(row) ? null : LocalDate.ofEpochDay(days.get(row)));
+                    if (employees) {
+                        VarCharVector projects = (VarCharVector) root.getVector("project");
+                        line.append('|').append(projects.isNull(row) ? null : new String(projects.get(row), StandardCharsets.UTF_8));
+                    }
+                    BigDecimal value = hours.getObject(row);
+                    line.append('|').append(value == null ? null : value.toPlainString());
+                    rows.add(line.toString());
+                }
+            }
+        }
+        return rows;
+    }
+
+    private byte[] encode(Class<?> type, Object... reports) {
+        return DataBufferUtils.join(encoder.encode(Flux.fromArray(reports), DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(type), ReportMediaTypes.ARROW_STREAM, Map.of()))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+    }
+}
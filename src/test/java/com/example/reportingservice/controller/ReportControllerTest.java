@@ -1,19 +1,26 @@
 package com.example.reportingservice.controller;
 
 import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
 import com.example.reportingservice.dto.ProjectReport;
 import com.example.reportingservice.exception.InvalidDateRangeException;
+import com.example.reportingservice.exception.InvalidReportParameterException;
+import com.example.reportingservice.service.ReportChanges;
+import com.example.reportingservice.service.ReportPage;
 import com.example.reportingservice.service.ReportService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -78,4 +85,56 @@ class ReportControllerTest {
                 .verifyComplete();
         verify(reportService).streamProjectsReport(startDate, endDate);
     }
+
+    @Test
+    void whenChunkSizeIsOutOfRange_thenThrowsException() {
+        assertThrows(InvalidReportParameterException.class, () -> reportController.streamEmployeesReportChunks(null, null, 0));
+        assertThrows(InvalidReportParameterException.class,
+                () -> reportController.streamProjectsReportChunks(null, null, ReportController.MAX_CHUNK_SIZE + 1));
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    void whenPageHasMore_thenRespondsWithCursorForNextPage() {
+        when(reportService.pageProjectsReport(null, null, null, 1))
+                .thenReturn(Mono.just(new ReportPage<>(Flux.just(new ProjectReport()), 1L)));
+
+        ResponseEntity<Flux<ProjectReport>> response = reportController.pageProjectsReport(null, null, null, 1, null).block();
+        String cursor = response.getHeaders().getFirst(ReportController.NEXT_CURSOR_HEADER);
+
+        assertThat(ReportCursor.decode("projects", cursor)).isEqualTo(1L);
+        assertThrows(InvalidReportParameterException.class, () -> ReportCursor.decode("employees", cursor));
+    }
+
+    @Test
+    void whenCursorOrLimitIsInvalid_thenThrowsException() {
+        assertThrows(InvalidReportParameterException.class, () -> reportController.pageEmployeesReport(null, null, "bogus", 10, null));
+        assertThrows(InvalidReportParameterException.class,
+                () -> reportController.pageEmployeesReport(null, null, null, ReportController.MAX_PAGE_SIZE + 1, null));
+        assertThrows(InvalidReportParameterException.class, () -> reportController.pageProjectsReport(null, null, null, 10, 100));
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    void whenChangesAreRequested_thenRespondsWithWatermarkForNextChanges() {
+        when(reportService.employeesReportChanges(null, null, 0))
+                .thenReturn(Mono.just(new ReportChanges<>(Flux.just(new KeyedEmployeeReport()), 1234L)));
+
+        ResponseEntity<Flux<KeyedEmployeeReport>> response = reportController.employeesReportChanges(null, null, "", null, null).block();
+        String watermark = response.getHeaders().getFirst(ReportController.WATERMARK_HEADER);
+
+        assertThat(ReportWatermark.decode(watermark)).isEqualTo(1234L);
+    }
+
+    @Test
+    void whenWatermarkIsInvalidOrCombinedWithPaging_thenThrowsException() {
+        assertThrows(InvalidReportParameterException.class, () -> reportController.projectsReportChanges(null, null, "bogus", null, null));
+        assertThrows(InvalidReportParameterException.class,
+                () -> reportController.projectsReportChanges(null, null, ReportCursor.encode("projects", 1), null, null));
+        assertThrows(InvalidReportParameterException.class, () -> reportController.employeesReportChanges(null, null, "", null, 10));
+
+        verifyNoInteractions(reportService);
+    }
 }
@@ -0,0 +1,94 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.KeyedProjectReport;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.dto.ProjectReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCsvEncoderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 2, 1);
+
+    private final ReportCsvEncoder encoder = new ReportCsvEncoder();
+
+    @Test
+    void employeeReportsAreFlattenedToOneLinePerDayAndProject() {
+        String csv = encode(EmployeeReport.class,
+                new EmployeeReport("Tom", List.of(
+                        new DailyHours(DAY, "Sample Project A", 32400),
+                        new DailyHours(DAY.plusDays(1), "Sample Project A", 32100))),
+                new EmployeeReport("Spike", List.of()));
+
+        assertThat(csv).isEqualTo("""
+                employee,day,project,hours\r
+                Tom,2024-02-01,Sample Project A,9.00\r
+                Tom,2024-02-02,Sample Project A,8.92\r
+                Spike,,,\r
+                """);
+    }
+
+    @Test
+    void projectReportsHaveNoProjectColumn() {
+        String csv = encode(ProjectReport.class,
+                new ProjectReport("Sample Project B", List.of(new ProjectDailyHours(DAY, 34200))));
+
+        assertThat(csv).isEqualTo("project,day,hours\r\nSample Project B,2024-02-01,9.50\r\n");
+    }
+
+    @Test
+    void keyedReportsStartWithTheIdColumn() {
+        String employees = encode(KeyedEmployeeReport.class,
+                new KeyedEmployeeReport(101, "Tom", List.of(new DailyHours(DAY, "Sample Project A", 32400))),
+                new KeyedEmployeeReport(103, "Spike", List.of()));
+        String projects = encode(KeyedProjectReport.class,
+                new KeyedProjectReport(2, "Sample Project B", List.of(new ProjectDailyHours(DAY, 34200))));
+
+        assertThat(employees).isEqualTo("""
+                employee_id,employee,day,project,hours\r
+                101,Tom,2024-02-01,Sample Project A,9.00\r
+                103,Spike,,,\r
+                """);
+        assertThat(projects).isEqualTo("project_id,project,day,hours\r\n2,Sample Project B,2024-02-01,9.50\r\n");
+    }
+
+    @Test
+    void fieldsWithSeparatorsQuotesOrLineBreaksAreQuoted() {
+        String csv = encode(EmployeeReport.class,
+                new EmployeeReport("O'Brien, \"Pat\"", List.of(new DailyHours(DAY, "Zoë\nTokyo 東京 😀", 60))));
+
+        assertThat(csv).endsWith("\"O'Brien, \"\"Pat\"\"\",2024-02-01,\"Zoë\nTokyo 東京 😀\",0.02\r\n");
+    }
+
+    @Test
+    void encodesOnlyReportsAsCsv() {
+        assertThat(encoder.canEncode(ResolvableType.forClass(EmployeeReport.class), MediaType.parseMediaType("text/csv"))).isTrue();
+        assertThat(encoder.canEncode(ResolvableType.forClass(ProjectReport.class), MediaType.APPLICATION_NDJSON)).isFalse();
+        assertThat(encoder.canEncode(ResolvableType.forClass(Object.class), null)).isFalse();
+    }
+
+    private String encode(Class<?> type, Object... reports) {
+        return DataBufferUtils.join(encoder.encode(Flux.fromArray(reports), DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(type), ReportMediaTypes.TEXT_CSV, Map.of()))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block();
+    }
+}
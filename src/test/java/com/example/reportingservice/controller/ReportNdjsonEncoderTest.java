@@ -0,0 +1,96 @@
+package com.example.reportingservice.controller;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.KeyedProjectReport;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.dto.ProjectReport;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportNdjsonEncoderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 2, 1);
+
+    private final ReportNdjsonEncoder encoder = new ReportNdjsonEncoder();
+    // ISO dates, as configured by Spring Boot
+    private final Jackson2JsonEncoder jacksonEncoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build());
+
+    @Test
+    void employeeReportsMatchJacksonOutput() {
+        List<EmployeeReport> reports = List.of(
+                new EmployeeReport("Tom", List.of(
+                        new DailyHours(DAY, "Sample Project A", 32400),
+                        new DailyHours(DAY.plusDays(1), "Sample Project A", 32100))),
+                new EmployeeReport("Spike", List.of()),
+                new EmployeeReport(null, null),
+                new EmployeeReport("Zoë \"Z\" O'Brien \\ 東京 😀", List.of(
+                        new DailyHours(null, null, 0),
+                        new DailyHours(LocalDate.of(12024, 12, 31), "tab\there\nnew\rline\b\f\u0001\u001F\u007F", 18),
+                        new DailyHours(LocalDate.of(99, 1, 9), "\"", 3_600_000_017L))));
+
+        assertThat(encode(encoder, reports, EmployeeReport.class)).isEqualTo(encode(jacksonEncoder, reports, EmployeeReport.class));
+    }
+
+    @Test
+    void projectReportsMatchJacksonOutput() {
+        List<ProjectReport> reports = List.of(
+                new ProjectReport("Sample Project A", List.of(
+                        new ProjectDailyHours(DAY, 32400),
+                        new ProjectDailyHours(DAY.plusDays(1), 17))),
+                new ProjectReport("Ünïcode \u2028\t€ \\".repeat(40), List.of(new ProjectDailyHours(null, 34200))),
+                new ProjectReport(null, null));
+
+        assertThat(encode(encoder, reports, ProjectReport.class)).isEqualTo(encode(jacksonEncoder, reports, ProjectReport.class));
+    }
+
+    @Test
+    void keyedReportsMatchJacksonOutputWithTheIdFirst() {
+        List<KeyedEmployeeReport> employees = List.of(
+                new KeyedEmployeeReport(101, "Tom", List.of(new DailyHours(DAY, "Sample Project A", 32400))),
+                new KeyedEmployeeReport(Long.MAX_VALUE, "Tom", List.of()));
+        List<KeyedProjectReport> projects = List.of(new KeyedProjectReport(1, "Sample Project A", List.of(new ProjectDailyHours(DAY, 17))));
+
+        assertThat(encode(encoder, employees, KeyedEmployeeReport.class))
+                .startsWith("{\"id\":101,\"name\":\"Tom\",")
+                .isEqualTo(encode(jacksonEncoder, employees, KeyedEmployeeReport.class));
+        assertThat(encode(encoder, projects, KeyedProjectReport.class)).isEqualTo(encode(jacksonEncoder, projects, KeyedProjectReport.class));
+    }
+
+    @Test
+    void encodesOnlyReportsAsNdjson() {
+        assertThat(encoder.canEncode(ResolvableType.forClass(EmployeeReport.class), MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(encoder.canEncode(ResolvableType.forClass(ProjectReport.class), MediaType.APPLICATION_NDJSON)).isTrue();
+        assertThat(encoder.canEncode(ResolvableType.forClass(EmployeeReport.class), MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(encoder.canEncode(ResolvableType.forClass(Object.class), null)).isFalse();
+    }
+
+    private static String encode(Encoder<Object> encoder, List<?> reports, Class<?> type) {
+        return DataBufferUtils.join(encoder.encode(Flux.fromIterable(reports), DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(type), MediaType.APPLICATION_NDJSON, Map.of()))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.reportingservice.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HoursJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void rendersSecondsLikeBigDecimalHoursRoundedHalfUpToTwoDecimals() {
+        LongStream.concat(LongStream.rangeClosed(0, 2 * 3600), LongStream.of(32100, 34200, 86400, 1_000_000_007L))
+                .forEach(seconds -> {
+                    String expected = BigDecimal.valueOf(seconds)
+                            .divide(BigDecimal.valueOf(3600), 20, RoundingMode.HALF_UP)
+                            .setScale(2, RoundingMode.HALF_UP)
+                            .toPlainString();
+                    char[] buffer = new char[24];
+                    int offset = HoursJson.format(HoursJson.hundredths(seconds), buffer);
+                    assertThat(new String(buffer, offset, buffer.length - offset)).as("%d seconds", seconds).isEqualTo(expected);
+                });
+    }
+
+    @Test
+    void serializesAsTotalHoursNumberAndReadsBackToTheSameRendering() throws Exception {
+        DailyHours hours = new DailyHours(LocalDate.of(2024, 2, 2), "Sample Project A", 32100);
+
+        String json = objectMapper.writeValueAsString(hours);
+        DailyHours read = objectMapper.readValue(json, DailyHours.class);
+
+        assertThat(json).isEqualTo("{\"day\":[2024,2,2],\"projectName\":\"Sample Project A\",\"totalHours\":8.92}");
+        assertThat(objectMapper.writeValueAsString(read)).isEqualTo(json);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.reportingservice.integration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests per second of an authenticated report endpoint with every request paying the BCrypt
+ * check (credential cache disabled) and with verified credentials cached.
+ */
+@Testcontainers
+class AuthenticationBenchmarkIT {
+
+    private static final int REQUESTS = 400;
+    private static final int CONCURRENCY = 16;
+    private static final Map<String, Double> REQUESTS_PER_SECOND = new ConcurrentHashMap<>();
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @TestPropertySource(properties = {"reporting.credential-cache.enabled=false", "reporting.admission.enabled=false"})
+    class EveryRequestChecksPassword {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void benchmark() {
+            REQUESTS_PER_SECOND.put("BCrypt per request", measure(port));
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    @TestPropertySource(properties = {"reporting.credential-cache.enabled=true", "reporting.admission.enabled=false"})
+    class VerifiedCredentialsCached {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void benchmark() {
+            REQUESTS_PER_SECOND.put("credential cache", measure(port));
+        }
+    }
+
+    @AfterAll
+    static void compare() {
+        REQUESTS_PER_SECOND.forEach((mode, rate) ->
+                System.out.printf(Locale.ROOT, "%-20s %8.0f requests/s%n", mode, rate));
+        if (REQUESTS_PER_SECOND.size() == 2) {
+            assertThat(REQUESTS_PER_SECOND.get("credential cache"))
+                    .isGreaterThan(REQUESTS_PER_SECOND.get("BCrypt per request"));
+        }
+    }
+
+    private static double measure(int port) {
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("user", "user123"))
+                .build();
+        Flux<Integer> requests = Flux.range(0, REQUESTS)
+                .flatMap(i -> client.get()
+                        .uri("/api/v1/report/projects")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .map(response -> response.getStatusCode().value()), CONCURRENCY);
+
+        // Warm up, then measure
+        requests.take(CONCURRENCY * 2L).blockLast(Duration.ofMinutes(1));
+        long started = System.nanoTime();
+        long ok = requests.filter(status -> status == 200).count().block(Duration.ofMinutes(5));
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        assertThat(ok).isEqualTo(REQUESTS);
+        return REQUESTS / seconds;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.dto.EmployeeReport;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Routes report queries to a second database standing in for a read replica. It holds the same
+ * schema and sample data except for a renamed employee, which shows where a report was read.
+ * The report cache stays enabled: reports read from the replica must not be cached.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@TestPropertySource(properties = "reporting.replicas.health-check-interval=500ms")
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaRoutingIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_replica")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+        registry.add("reporting.replicas.urls", () -> "r2dbc:postgresql://" + replica.getHost() + ":" + replica.getFirstMappedPort() + "/" + replica.getDatabaseName());
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeAll
+    static void seedReplica() throws SQLException {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE employee SET name = 'Tom (replica)' WHERE name = 'Tom'");
+        }
+    }
+
+    @Test
+    @Order(1)
+    void shouldReadReportsFromReplica_OnceItIsHealthy() {
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(employeeNames()).contains("Tom (replica)"));
+    }
+
+    @Test
+    @Order(2)
+    void shouldReadReportsFromPrimary_WhenReplicaIsDown() {
+        assertThat(employeeNames()).contains("Tom (replica)");
+        replica.stop();
+
+        assertThat(employeeNames()).contains("Tom").doesNotContain("Tom (replica)");
+    }
+
+    private List<String> employeeNames() {
+        return webTestClient.get()
+                .uri("/api/v1/report/employees")
+                .headers(headers -> headers.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(EmployeeReport.class)
+                .getResponseBody()
+                .map(EmployeeReport::getName)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
+import com.example.reportingservice.dto.ProjectDailyHours;
+import com.example.reportingservice.dto.KeyedProjectReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Changed-since reports over the sample data: writes and deletes after a watermark come back as
+ * the affected aggregates only, and a report at the returned watermark is empty.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@Testcontainers
+class ReportChangesIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void changesSinceWatermarkContainOnlyAffectedAggregates() {
+        EntityExchangeResult<List<KeyedProjectReport>> initial = projectChanges("");
+        String watermark = initial.getResponseHeaders().getFirst("X-Watermark");
+        assertThat(initial.getResponseBody()).extracting(KeyedProjectReport::getId, KeyedProjectReport::getName)
+                .containsExactly(tuple(1L, "Sample Project A"), tuple(2L, "Sample Project B"));
+
+        // Jerry's only record moves to another project and day, Tom logs a new day
+        execute("UPDATE time_record SET project_id = 1, time_from = '2024-03-04 09:00', time_to = '2024-03-04 17:30' WHERE id = 2");
+        execute("INSERT INTO time_record (id, employee_id, project_id, time_from, time_to) VALUES (900, 101, 1, '2024-03-05 08:00', '2024-03-05 10:00')");
+
+        EntityExchangeResult<List<KeyedProjectReport>> projects = projectChanges(watermark);
+        List<KeyedEmployeeReport> employees = webTestClient
+                .get()
+                .uri("/api/v1/report/employees?since={since}", watermark)
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(KeyedEmployeeReport.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(projects.getResponseBody()).extracting(KeyedProjectReport::getName)
+                .containsExactly("Sample Project A", "Sample Project B");
+        assertThat(projects.getResponseBody().get(0).getHoursSpent()).extracting(ProjectDailyHours::getDay, ProjectDailyHours::getTotalSeconds)
+                .containsExactly(tuple(LocalDate.of(2024, 3, 4), 30_600L), tuple(LocalDate.of(2024, 3, 5), 7_200L));
+        assertThat(projects.getResponseBody().get(1).getHoursSpent()).extracting(ProjectDailyHours::getDay, ProjectDailyHours::getTotalSeconds)
+                .containsExactly(tuple(LocalDate.of(2024, 2, 1), 0L));
+        assertThat(employees).extracting(KeyedEmployeeReport::getId, KeyedEmployeeReport::getName)
+                .containsExactly(tuple(101L, "Tom"), tuple(102L, "Jerry"));
+        assertThat(employees.get(0).getHoursSpent()).extracting(DailyHours::getDay)
+                .containsExactly(LocalDate.of(2024, 3, 5));
+        assertThat(employees.get(1).getHoursSpent()).extracting(DailyHours::getDay, DailyHours::getProjectName, DailyHours::getTotalSeconds)
+                .containsExactly(tuple(LocalDate.of(2024, 2, 1), "Sample Project B", 0L),
+                        tuple(LocalDate.of(2024, 3, 4), "Sample Project A", 30_600L));
+
+        String next = projects.getResponseHeaders().getFirst("X-Watermark");
+        assertThat(projectChanges(next).getResponseBody()).isEmpty();
+    }
+
+    @Test
+    void invalidWatermarkIsRejected() {
+        webTestClient
+                .get()
+                .uri("/api/v1/report/projects?since=not-a-watermark")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private EntityExchangeResult<List<KeyedProjectReport>> projectChanges(String since) {
+        return webTestClient
+                .get()
+                .uri("/api/v1/report/projects?since={since}", since)
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(KeyedProjectReport.class)
+                .returnResult();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block(Duration.ofSeconds(10));
+    }
+}
@@ -1,14 +1,17 @@
 package com.example.reportingservice.integration;
 
 import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.KeyedEmployeeReport;
 import com.example.reportingservice.dto.ProjectReport;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -16,9 +19,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
-import java.math.BigDecimal;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -72,12 +78,12 @@ class ReportControllerIT {
                     if ("Tom".equals(employeeReport.getName())) {
                         // Tom has 2 time records: 9 hours on 2024-02-01 and ~8.92 hours on 2024-02-02
                         assertThat(employeeReport.getHoursSpent()).hasSize(2);
-                        assertThat(employeeReport.getHoursSpent().get(0).getTotalHours().compareTo(new BigDecimal("9.0"))).isEqualTo(0);
+                        assertThat(employeeReport.getHoursSpent().get(0).getTotalSeconds()).isEqualTo(32400L);
                         assertThat(employeeReport.getHoursSpent().get(0).getProjectName()).isEqualTo("Sample Project A");
                     } else if ("Jerry".equals(employeeReport.getName())) {
                         // Jerry has 1 time record: 9.5 hours on 2024-02-01
                         assertThat(employeeReport.getHoursSpent()).hasSize(1);
-                        assertThat(employeeReport.getHoursSpent().get(0).getTotalHours().compareTo(new BigDecimal("9.5"))).isEqualTo(0);
+                        assertThat(employeeReport.getHoursSpent().get(0).getTotalSeconds()).isEqualTo(34200L);
                         assertThat(employeeReport.getHoursSpent().get(0).getProjectName()).isEqualTo("Sample Project B");
                     }
                 })
@@ -148,11 +154,11 @@ class ReportControllerIT {
                         // Project A has Tom's 2 time records
                         assertThat(projectReport.getHoursSpent()).hasSize(2);
                         // Should have records for 2024-02-01 and 2024-02-02
-                        assertThat(projectReport.getHoursSpent().get(0).getTotalHours().compareTo(new BigDecimal("9.0"))).isEqualTo(0);
+                        assertThat(projectReport.getHoursSpent().get(0).getTotalSeconds()).isEqualTo(32400L);
                     } else if ("Sample Project B".equals(projectReport.getName())) {
                         // Project B has Jerry's 1 time record
                         assertThat(projectReport.getHoursSpent()).hasSize(1);
-                        assertThat(projectReport.getHoursSpent().get(0).getTotalHours().compareTo(new BigDecimal("9.5"))).isEqualTo(0);
+                        assertThat(projectReport.getHoursSpent().get(0).getTotalSeconds()).isEqualTo(34200L);
                     }
                 })
                 .assertNext(projectReport -> {
@@ -191,6 +197,69 @@ class ReportControllerIT {
                 .verify(Duration.ofSeconds(10));
     }
 
+    @Test
+    void shouldStreamProjectsReportAsCsv_WhenAccepted() {
+        // When: Call the projects report endpoint asking for CSV
+        String csv = webTestClient
+                .get()
+                .uri("/api/v1/report/projects?startDate=2024-02-02&endDate=2024-02-02")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.parseMediaType("text/csv"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("text/csv"))
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then: One header row and one row per project and day
+        assertThat(csv).isEqualTo("project,day,hours\r\nSample Project A,2024-02-02,8.92\r\n");
+    }
+
+    @Test
+    void shouldStreamChunksCarryingTheEmployeeId_WhenChunkSizeIsGiven() {
+        // When: Call the employees report endpoint with one entry per chunk
+        Flux<KeyedEmployeeReport> result = webTestClient
+                .get()
+                .uri("/api/v1/report/employees?startDate=2024-02-01&endDate=2024-02-02&chunkSize=1")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(KeyedEmployeeReport.class)
+                .getResponseBody();
+
+        // Then: Tom's two days come as two lines with his id, then Jerry's
+        StepVerifier.create(result.map(report -> report.getId() + ":" + report.getName() + ":" + report.getHoursSpent().size()))
+                .expectNext("101:Tom:1", "101:Tom:1", "102:Jerry:1")
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldCompressReportWithGzip_WhenAccepted() throws Exception {
+        // When: Call the projects report endpoint accepting gzip
+        byte[] body = webTestClient
+                .get()
+                .uri("/api/v1/report/projects?startDate=2024-02-02&endDate=2024-02-02")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then: The body is the NDJSON report, gzipped
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo("{\"name\":\"Sample Project A\",\"hoursSpent\":[{\"day\":\"2024-02-02\",\"totalHours\":8.92}]}\n");
+        }
+    }
+
     @Test
     void shouldStreamEmployeesReportAsUser_OnlyOwnData() {
         // When: Call the employees report endpoint as regular user
@@ -271,4 +340,44 @@ class ReportControllerIT {
                 .expectBody(String.class)
                 .isEqualTo("End date cannot be before start date.");
     }
+
+    @Test
+    void shouldPageEmployeesReportWithKeysetCursor_AsAdmin() {
+        EntityExchangeResult<List<EmployeeReport>> first = webTestClient
+                .get()
+                .uri("/api/v1/report/employees?limit=1")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(EmployeeReport.class)
+                .returnResult();
+        String cursor = first.getResponseHeaders().getFirst("X-Next-Cursor");
+
+        EntityExchangeResult<List<EmployeeReport>> second = webTestClient
+                .get()
+                .uri("/api/v1/report/employees?limit=1&cursor={cursor}", cursor)
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(EmployeeReport.class)
+                .returnResult();
+
+        assertThat(cursor).isNotBlank();
+        assertThat(first.getResponseBody()).extracting(EmployeeReport::getName).containsExactly("Tom");
+        assertThat(second.getResponseBody()).extracting(EmployeeReport::getName).containsExactly("Jerry");
+        assertThat(second.getResponseHeaders().containsKey("X-Next-Cursor")).isFalse();
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() {
+        webTestClient
+                .get()
+                .uri("/api/v1/report/projects?limit=10&cursor=not-a-cursor")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
 }
@@ -0,0 +1,230 @@
+package com.example.reportingservice.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the report endpoints over a generated dataset. Admin and user requests for random
+ * date windows are replayed concurrently and throughput, latency percentiles, SQL statements and
+ * heap usage are printed and written to {@code target/load-test/}.
+ * <p>
+ * The dataset and the request plan depend only on the parameters below, so runs of different
+ * releases with the same parameters are comparable. The report cache is off so every request
+ * reaches the database. Override the parameters as system properties, for example
+ * {@code mvn verify -Dit.test=ReportLoadIT -Dloadtest.employees=2000 -Dloadtest.days=365}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "reporting.cache.enabled=false",
+        "reporting.admission.enabled=false",
+        "logging.level.com.example.reportingservice=INFO"
+})
+@Testcontainers
+class ReportLoadIT {
+
+    private static final int EMPLOYEES = Integer.getInteger("loadtest.employees", 200);
+    private static final int PROJECTS = Integer.getInteger("loadtest.projects", 20);
+    private static final int DAYS = Integer.getInteger("loadtest.days", 180);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 1000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final int ADMIN_PERCENT = Integer.getInteger("loadtest.admin-percent", 20);
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+    private static final int[] WINDOW_DAYS = {7, 31, 92};
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void reportEndpointsUnderConcurrentLoad() throws IOException {
+        SyntheticDataset dataset = new SyntheticDataset(EMPLOYEES, PROJECTS, DAYS, LocalDate.of(2023, 1, 1));
+        long loadStarted = System.nanoTime();
+        Long timeRecords = dataset.load(databaseClient).block(Duration.ofMinutes(30));
+        Duration loadTime = Duration.ofNanos(System.nanoTime() - loadStarted);
+        // The demo user reports on the first generated employee
+        databaseClient.sql("UPDATE user_employee SET employee_id = :employeeId WHERE username = 'user'")
+                .bind("employeeId", SyntheticDataset.FIRST_EMPLOYEE_ID)
+                .then()
+                .block(Duration.ofSeconds(10));
+
+        List<LoadRequest> plan = plan(dataset);
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        replay(client, plan.subList(0, Math.min(plan.size(), CONCURRENCY * 4))).blockLast(Duration.ofMinutes(5));
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong heapPeak = new AtomicLong(heapBefore);
+        long queriesBefore = sqlStatements();
+        long started = System.nanoTime();
+        Disposable heapSampler = Flux.interval(Duration.ofMillis(50))
+                .subscribe(tick -> heapPeak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max));
+        List<Outcome> outcomes = replay(client, plan).collectList().block(Duration.ofMinutes(30));
+        heapSampler.dispose();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long queries = sqlStatements() - queriesBefore;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("employees", EMPLOYEES);
+        result.put("projects", PROJECTS);
+        result.put("days", DAYS);
+        result.put("timeRecords", timeRecords);
+        result.put("datasetLoadSeconds", loadTime.toMillis() / 1000.0);
+        result.put("requests", REQUESTS);
+        result.put("concurrency", CONCURRENCY);
+        result.put("adminPercent", ADMIN_PERCENT);
+        result.put("seed", SEED);
+        result.put("total", summary(outcomes, seconds));
+        for (String kind : List.of("admin employees", "admin projects", "user employees", "user projects")) {
+            result.put(kind, summary(outcomes.stream().filter(outcome -> outcome.request().kind().equals(kind)).toList(), seconds));
+        }
+        result.put("sqlStatements", queries);
+        result.put("sqlStatementsPerRequest", round((double) queries / outcomes.size()));
+        result.put("heapBeforeMb", heapBefore / (1024 * 1024));
+        result.put("heapPeakMb", heapPeak.get() / (1024 * 1024));
+
+        String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(result);
+        System.out.println("Report load test\n" + json);
+        Path output = Path.of("target", "load-test", String.format(Locale.ROOT, "report-load-%dx%dx%d.json", EMPLOYEES, PROJECTS, DAYS));
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+
+        assertThat(outcomes).hasSize(REQUESTS).allSatisfy(outcome -> assertThat(outcome.status()).isEqualTo(200));
+    }
+
+    /**
+     * The same parameters always give the same requests in the same order.
+     */
+    private static List<LoadRequest> plan(SyntheticDataset dataset) {
+        Random random = new Random(SEED);
+        List<LoadRequest> plan = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            boolean admin = random.nextInt(100) < ADMIN_PERCENT;
+            String report = random.nextBoolean() ? "employees" : "projects";
+            int window = Math.min(WINDOW_DAYS[random.nextInt(WINDOW_DAYS.length)], dataset.days());
+            LocalDate start = dataset.firstDay().plusDays(random.nextInt(dataset.days() - window + 1));
+            plan.add(new LoadRequest(admin, report, start, start.plusDays(window - 1L)));
+        }
+        return plan;
+    }
+
+    private static Flux<Outcome> replay(WebClient client, List<LoadRequest> requests) {
+        return Flux.fromIterable(requests)
+                .flatMap(request -> {
+                    long started = System.nanoTime();
+                    return client.get()
+                            .uri(uri -> uri.path("/api/v1/report/" + request.report())
+                                    .queryParam("startDate", request.startDate())
+                                    .queryParam("endDate", request.endDate())
+                                    .build())
+                            .accept(MediaType.APPLICATION_NDJSON)
+                            .headers(headers -> headers.setBasicAuth(request.admin() ? "admin" : "user", request.admin() ? "admin123" : "user123"))
+                            .exchangeToMono(response -> response.bodyToFlux(DataBuffer.class)
+                                    .map(ReportLoadIT::releasedSize)
+                                    .reduce(0L, Long::sum)
+                                    .map(bytes -> new Outcome(request, response.statusCode().value(), bytes, System.nanoTime() - started)));
+                }, CONCURRENCY);
+    }
+
+    private static long releasedSize(DataBuffer buffer) {
+        long size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    private long sqlStatements() {
+        return meterRegistry.find("db.query").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private static Map<String, Object> summary(List<Outcome> outcomes, double seconds) {
+        long[] latencies = outcomes.stream().mapToLong(Outcome::nanos).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", outcomes.size());
+        summary.put("requestsPerSecond", round(outcomes.size() / seconds));
+        summary.put("p50Millis", round(percentile(latencies, 0.50) / 1e6));
+        summary.put("p99Millis", round(percentile(latencies, 0.99) / 1e6));
+        summary.put("maxMillis", round(latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6));
+        summary.put("averageBytes", Math.round(outcomes.stream().mapToLong(Outcome::bytes).average().orElse(0)));
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private record LoadRequest(boolean admin, String report, LocalDate startDate, LocalDate endDate) {
+        String kind() {
+            return (admin ? "admin " : "user ") + report;
+        }
+    }
+
+    private record Outcome(LoadRequest request, int status, long bytes, long nanos) {
+    }
+}
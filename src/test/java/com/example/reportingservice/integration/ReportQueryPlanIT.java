@@ -0,0 +1,145 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.repository.ReportQuery;
+import com.example.reportingservice.repository.ReportQueryBuilder;
+import com.example.reportingservice.repository.ReportQueryRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies with EXPLAIN that the filter-specialized report statements are planned as index scans
+ * once the tables hold a realistic amount of data.
+ */
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReportQueryPlanIT {
+
+    private static final LocalDate START = LocalDate.of(2023, 6, 1);
+    private static final LocalDate END = LocalDate.of(2023, 6, 7);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReportQueryRepository reportQueryRepository;
+
+    @BeforeAll
+    void seedOneYearOfRecords() {
+        // 400 employees x 20 projects, one 8 hour record per employee and day in 2023
+        execute("INSERT INTO employee (id, name) SELECT g, 'Employee ' || g FROM generate_series(1000, 1399) g");
+        execute("INSERT INTO project (id, name) SELECT g, 'Project ' || g FROM generate_series(100, 119) g");
+        execute("SELECT create_time_record_partition(month::DATE) FROM generate_series(DATE '2023-01-01', DATE '2023-12-01', INTERVAL '1 month') month");
+        execute("""
+                INSERT INTO time_record (id, employee_id, project_id, time_from, time_to)
+                SELECT 1000000 + (e - 1000) * 365 + d, e, 100 + (e + d) % 20,
+                       TIMESTAMP '2023-01-01 08:00:00' + d * INTERVAL '1 day',
+                       TIMESTAMP '2023-01-01 16:00:00' + d * INTERVAL '1 day'
+                FROM generate_series(1000, 1399) e, generate_series(0, 364) d
+                """);
+        execute("ANALYZE");
+    }
+
+    @Test
+    void employeeReportForOneEmployeeUsesRollupPrimaryKey() {
+        ReportQuery query = ReportQueryBuilder.employees().employeeId(1042L).startDate(START).endDate(END).build();
+
+        assertThat(explain(query)).contains("time_record_daily_pkey").doesNotContain("Seq Scan on time_record_daily");
+    }
+
+    @Test
+    void employeesReportForDateRangeUsesDayIndex() {
+        ReportQuery query = ReportQueryBuilder.employees().startDate(START).endDate(END).build();
+
+        assertThat(explain(query)).contains("idx_time_record_daily_day").doesNotContain("Seq Scan on time_record_daily");
+    }
+
+    @Test
+    void projectsReportForOneEmployeeUsesRollupPrimaryKey() {
+        ReportQuery query = ReportQueryBuilder.projects().employeeId(1042L).startDate(START).endDate(END).build();
+
+        assertThat(explain(query)).contains("time_record_daily_pkey").doesNotContain("Seq Scan on time_record_daily");
+    }
+
+    @Test
+    void projectsReportForDateRangeUsesIndex() {
+        ReportQuery query = ReportQueryBuilder.projects().startDate(START).endDate(END).build();
+
+        assertThat(explain(query)).containsPattern("Index (Only )?Scan|Bitmap Index Scan").doesNotContain("Seq Scan on time_record_daily");
+    }
+
+    @Test
+    void changesSinceRecentWatermarkUseModificationIndexOfLargePartitions() {
+        Long watermark = reportQueryRepository.findWatermark().block(Duration.ofSeconds(10));
+
+        String employees = explain(ReportQueryBuilder.employees().changedSince(watermark).build());
+        String projects = explain(ReportQueryBuilder.projects().changedSince(watermark).build());
+
+        for (String plan : List.of(employees, projects)) {
+            assertThat(plan).contains("time_record_p2023_06_modified_xid_idx").doesNotContain("Seq Scan on time_record_p2023");
+        }
+    }
+
+    @Test
+    void rawRecordRangeScansUseCompositeIndexes() {
+        String byEmployee = explain(new ReportQuery(
+                "SELECT * FROM time_record WHERE employee_id = :id AND time_from >= :from AND time_from < :to",
+                Map.of("id", 1042L, "from", START.atStartOfDay(), "to", END.atStartOfDay())));
+        String byProject = explain(new ReportQuery(
+                "SELECT * FROM time_record WHERE project_id = :id AND time_from >= :from AND time_from < :to",
+                Map.of("id", 105L, "from", START.atStartOfDay(), "to", LocalDateTime.of(2023, 6, 2, 0, 0))));
+
+        // Partition indexes are named after the partitioned index columns
+        assertThat(byEmployee).contains("time_record_p2023_06_employee_id_time_from_idx");
+        assertThat(byProject).contains("time_record_p2023_06_project_id_time_from_idx");
+    }
+
+    private String explain(ReportQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("EXPLAIN " + query.getSql());
+        for (Map.Entry<String, Object> binding : query.getBindings().entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map(row -> row.get(0, String.class))
+                .all()
+                .collect(Collectors.joining("\n"))
+                .block(Duration.ofSeconds(10));
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block(Duration.ofMinutes(2));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.config.ReportingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of full-range admin reports over a generated multi-year dataset with the range split
+ * into 1, 2, 4 and 8 concurrently queried shards. Every shard count must return the same bytes as
+ * the unsharded report. Override the dataset with {@code shardbench.employees},
+ * {@code shardbench.projects} and {@code shardbench.days}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "reporting.cache.enabled=false",
+        "reporting.sharding.enabled=true",
+        "reporting.sharding.min-shard-days=1",
+        "spring.r2dbc.pool.max-size=16",
+        "logging.level.com.example.reportingservice=INFO"
+})
+@Testcontainers
+class ReportShardingBenchmarkIT {
+
+    private static final int EMPLOYEES = Integer.getInteger("shardbench.employees", 200);
+    private static final int PROJECTS = Integer.getInteger("shardbench.projects", 20);
+    private static final int DAYS = Integer.getInteger("shardbench.days", 730);
+    private static final int REQUESTS = 5;
+    private static final int[] SHARDS = {1, 2, 4, 8};
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReportingProperties properties;
+
+    @Test
+    void fullRangeAdminReportsByShardCount() {
+        new SyntheticDataset(EMPLOYEES, PROJECTS, DAYS, LocalDate.of(2023, 1, 1))
+                .load(databaseClient)
+                .block(Duration.ofMinutes(30));
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeaders(headers -> headers.setBasicAuth("admin", "admin123"))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+
+        Map<String, byte[]> unsharded = new LinkedHashMap<>();
+        Map<String, double[]> medianMillis = new LinkedHashMap<>();
+        for (String report : List.of("employees", "projects")) {
+            double[] medians = new double[SHARDS.length];
+            for (int i = 0; i < SHARDS.length; i++) {
+                properties.getSharding().setMaxShards(SHARDS[i]);
+                byte[] body = fetch(client, report);
+                if (SHARDS[i] == 1) {
+                    unsharded.put(report, body);
+                }
+                assertThat(body).as("%s report with %d shards", report, SHARDS[i]).isEqualTo(unsharded.get(report));
+                List<Double> millis = new ArrayList<>();
+                for (int request = 0; request < REQUESTS; request++) {
+                    long started = System.nanoTime();
+                    fetch(client, report);
+                    millis.add((System.nanoTime() - started) / 1e6);
+                }
+                medians[i] = millis.stream().sorted().toList().get(REQUESTS / 2);
+            }
+            medianMillis.put(report, medians);
+        }
+
+        System.out.printf(Locale.ROOT, "Full-range admin reports, %d employees x %d projects x %d days, %d CPUs%n",
+                EMPLOYEES, PROJECTS, DAYS, Runtime.getRuntime().availableProcessors());
+        System.out.printf(Locale.ROOT, "%-10s %s%n", "shards", Arrays.toString(SHARDS));
+        medianMillis.forEach((report, medians) -> {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-10s", report));
+            for (double median : medians) {
+                line.append(String.format(Locale.ROOT, " %7.0f ms (%.2fx)", median, medians[0] / median));
+            }
+            System.out.println(line);
+        });
+    }
+
+    private static byte[] fetch(WebClient client, String report) {
+        return client.get()
+                .uri("/api/v1/report/" + report)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .block(Duration.ofMinutes(5));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.reportingservice.integration;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * A reproducible dataset of {@code employees × projects × days} generated inside Postgres. Every
+ * employee works one to three records a day on projects picked by a fixed formula, so the same
+ * parameters always produce the same rows. Ids start far above the sample data.
+ */
+record SyntheticDataset(int employees, int projects, int days, LocalDate firstDay) {
+
+    static final long FIRST_EMPLOYEE_ID = 100_000;
+    static final long FIRST_PROJECT_ID = 100_000;
+    private static final long FIRST_TIME_RECORD_ID = 100_000_000;
+    private static final int EMPLOYEES_PER_STATEMENT = 500;
+
+    LocalDate lastDay() {
+        return firstDay.plusDays(days - 1L);
+    }
+
+    /**
+     * Creates the month partitions, employees, projects and time records, then refreshes planner statistics.
+     */
+    Mono<Long> load(DatabaseClient databaseClient) {
+        Mono<Void> partitions = databaseClient.sql("""
+                        SELECT create_time_record_partition(month::DATE)
+                        FROM generate_series(date_trunc('month', :firstDay::DATE), :lastDay::DATE, INTERVAL '1 month') month""")
+                .bind("firstDay", firstDay)
+                .bind("lastDay", lastDay())
+                .then();
+        Mono<Void> employeeRows = databaseClient.sql("""
+                        INSERT INTO employee (id, name)
+                        SELECT :firstId + e - 1, 'Load Employee ' || e FROM generate_series(1, :count) e""")
+                .bind("firstId", FIRST_EMPLOYEE_ID)
+                .bind("count", employees)
+                .then();
+        Mono<Void> projectRows = databaseClient.sql("""
+                        INSERT INTO project (id, name)
+                        SELECT :firstId + p - 1, 'Load Project ' || p FROM generate_series(1, :count) p""")
+                .bind("firstId", FIRST_PROJECT_ID)
+                .bind("count", projects)
+                .then();
+        Flux<Long> timeRecords = Flux.range(0, (employees + EMPLOYEES_PER_STATEMENT - 1) / EMPLOYEES_PER_STATEMENT)
+                .concatMap(chunk -> insertTimeRecords(databaseClient, chunk * EMPLOYEES_PER_STATEMENT + 1,
+                        Math.min(employees, (chunk + 1) * EMPLOYEES_PER_STATEMENT)));
+        return partitions
+                .then(employeeRows)
+                .then(projectRows)
+                .thenMany(timeRecords)
+                .reduce(0L, Long::sum)
+                .flatMap(records -> databaseClient.sql("ANALYZE").then().thenReturn(records));
+    }
+
+    private Mono<Long> insertTimeRecords(DatabaseClient databaseClient, int fromEmployee, int toEmployee) {
+        return databaseClient.sql("""
+                        INSERT INTO time_record (id, employee_id, project_id, time_from, time_to)
+                        SELECT :firstRecordId + (e - 1)::BIGINT * :days * 3 + d * 3 + r,
+                               :firstEmployeeId + e - 1,
+                               :firstProjectId + (e * 31 + d * 7 + r * 13) % :projects,
+                               (:firstDay::DATE + d) + make_interval(hours => 8 + r * 3),
+                               (:firstDay::DATE + d) + make_interval(hours => 8 + r * 3, mins => 60 + (e * 7919 + d * 104729 + r) % 120)
+                        FROM generate_series(:fromEmployee, :toEmployee) e,
+                             generate_series(0, :days - 1) d,
+                             generate_series(0, 2) r
+                        WHERE r <= (e + d) % 3""")
+                .bind("firstRecordId", FIRST_TIME_RECORD_ID)
+                .bind("firstEmployeeId", FIRST_EMPLOYEE_ID)
+                .bind("firstProjectId", FIRST_PROJECT_ID)
+                .bind("projects", projects)
+                .bind("days", days)
+                .bind("firstDay", firstDay)
+                .bind("fromEmployee", fromEmployee)
+                .bind("toEmployee", toEmployee)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.dto.IngestionResult;
+import com.example.reportingservice.service.TimeRecordRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient(timeout = "PT5M")
+@Testcontainers
+class TimeRecordIngestionIT {
+
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2024, 2, 1, 8, 0);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TimeRecordRollupService rollupService;
+
+    @Test
+    void ingestionUpsertsOnIdAndKeepsRollupConsistent() {
+        String body = String.join("\n",
+                record(200, 101, 1, FIRST_START, 120),
+                record(201, 102, 2, FIRST_START, 60),
+                // Same id again, moved to the next month: replaces the first one
+                record(200, 101, 1, FIRST_START.plusMonths(1), 30)) + "\n";
+
+        IngestionResult result = ingest(body, 2);
+
+        assertThat(result.getRecords()).isEqualTo(3);
+        assertThat(result.getBatches()).isEqualTo(2);
+        assertThat(strings("SELECT id || ':' || time_from::DATE FROM time_record WHERE id IN (200, 201) ORDER BY id"))
+                .containsExactly("200:2024-03-01", "201:2024-02-01");
+        assertThat(rollupService.checkConsistency().block(Duration.ofSeconds(10)).isConsistent()).isTrue();
+
+        // Sending the same records again writes nothing, so they do not show up as changed
+        String versions = "SELECT id || ':' || modified_xid FROM time_record WHERE id IN (200, 201) ORDER BY id";
+        String tombstones = "SELECT COUNT(*) || ':' || COALESCE(MAX(deleted_xid::TEXT), '') FROM time_record_tombstone";
+        List<String> versionsBefore = strings(versions);
+        List<String> tombstonesBefore = strings(tombstones);
+        ingest(body, 1000);
+        assertThat(strings("SELECT COUNT(*)::TEXT FROM time_record WHERE id IN (200, 201)")).containsExactly("2");
+        assertThat(strings(versions)).isEqualTo(versionsBefore);
+        assertThat(strings(tombstones)).isEqualTo(tombstonesBefore);
+        assertThat(rollupService.checkConsistency().block(Duration.ofSeconds(10)).isConsistent()).isTrue();
+
+        // A changed end is updated in place
+        ingest(record(201, 102, 2, FIRST_START, 90) + "\n", 1000);
+        assertThat(strings("SELECT (time_to - time_from)::TEXT FROM time_record WHERE id = 201")).containsExactly("01:30:00");
+        assertThat(strings(versions).get(1)).isNotEqualTo(versionsBefore.get(1));
+        assertThat(rollupService.checkConsistency().block(Duration.ofSeconds(10)).isConsistent()).isTrue();
+    }
+
+    @Test
+    void invalidRecordsAreRejected() {
+        webTestClient.post()
+                .uri("/api/v1/time-records")
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(record(210, 999, 1, FIRST_START, 60) + "\n")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post()
+                .uri("/api/v1/time-records")
+                .headers(h -> h.setBasicAuth("user", "user123"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(record(211, 101, 1, FIRST_START, 60) + "\n")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    /**
+     * Records per second for the same 50,000 new records at several batch sizes.
+     */
+    @Test
+    void benchmarkBatchSizes() {
+        int records = 50_000;
+        StringBuilder summary = new StringBuilder("\nbatch size | records/s | avg batch ms | max batch ms\n");
+        long firstId = 1_000_000;
+        for (int batchSize : List.of(10, 100, 1000, 5000)) {
+            long base = firstId;
+            String body = IntStream.range(0, records)
+                    .mapToObj(i -> record(base + i, 101 + i % 2, 1 + i % 2, FIRST_START.plusMinutes(i % 40_000), 30))
+                    .collect(Collectors.joining("\n", "", "\n"));
+
+            IngestionResult result = ingest(body, batchSize);
+
+            assertThat(result.getRecords()).isEqualTo(records);
+            summary.append(String.format(Locale.ROOT, "%10d | %9.0f | %12.1f | %12.1f%n",
+                    batchSize, result.getRecordsPerSecond(), result.getAverageBatchMillis(), result.getMaxBatchMillis()));
+            firstId += records;
+        }
+        System.out.println(summary);
+        assertThat(rollupService.checkConsistency().block(Duration.ofSeconds(30)).isConsistent()).isTrue();
+    }
+
+    private IngestionResult ingest(String body, int batchSize) {
+        return webTestClient.post()
+                .uri("/api/v1/time-records?batchSize={batchSize}", batchSize)
+                .headers(h -> h.setBasicAuth("admin", "admin123"))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(IngestionResult.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static String record(long id, long employeeId, long projectId, LocalDateTime timeFrom, int minutes) {
+        return String.format("{\"id\":%d,\"employeeId\":%d,\"projectId\":%d,\"timeFrom\":\"%s\",\"timeTo\":\"%s\"}",
+                id, employeeId, projectId, timeFrom, timeFrom.plusMinutes(minutes));
+    }
+
+    private List<String> strings(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+}
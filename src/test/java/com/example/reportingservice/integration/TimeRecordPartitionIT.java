@@ -0,0 +1,112 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.service.TimeRecordPartitionMaintenance;
+import com.example.reportingservice.service.TimeRecordRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+class TimeRecordPartitionIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TimeRecordPartitionMaintenance partitionMaintenance;
+
+    @Autowired
+    private TimeRecordRollupService rollupService;
+
+    @Test
+    void sampleDataIsMigratedIntoItsMonthlyPartition() {
+        List<String> rows = strings("SELECT tableoid::regclass || ':' || id FROM time_record WHERE id <= 3 ORDER BY id");
+
+        assertThat(rows).containsExactly("time_record_p2024_02:1", "time_record_p2024_02:2", "time_record_p2024_02:3");
+    }
+
+    @Test
+    void futurePartitionsAreCreatedAhead() {
+        StepVerifier.create(partitionMaintenance.ensurePartitions())
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        String threeMonthsAhead = "time_record_p" + LocalDate.now().plusMonths(3).format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        assertThat(strings("SELECT COALESCE(to_regclass('" + threeMonthsAhead + "')::TEXT, 'missing')"))
+                .containsExactly(threeMonthsAhead);
+    }
+
+    @Test
+    void boundedQueriesOnlyScanPartitionsInRange() {
+        String plan = String.join("\n", databaseClient.sql("EXPLAIN SELECT * FROM time_record WHERE time_from >= :from AND time_from < :to")
+                .bind("from", LocalDateTime.of(2024, 2, 1, 0, 0))
+                .bind("to", LocalDateTime.of(2024, 3, 1, 0, 0))
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block(Duration.ofSeconds(10)));
+
+        assertThat(plan).contains("time_record_p2024_02").doesNotContain("time_record_default");
+        assertThat(plan).doesNotContainPattern("time_record_p(?!2024_02)\\d{4}_\\d{2}");
+    }
+
+    @Test
+    void rowsInDefaultPartitionMoveToNewPartitionAndRollupStaysConsistent() {
+        execute("INSERT INTO time_record VALUES (50, 101, 1, '2019-05-03 08:00:00', '2019-05-03 10:00:00')");
+        assertThat(strings("SELECT tableoid::regclass::TEXT FROM time_record WHERE id = 50")).containsExactly("time_record_default");
+
+        execute("SELECT create_time_record_partition('2019-05-01')");
+
+        assertThat(strings("SELECT tableoid::regclass::TEXT FROM time_record WHERE id = 50")).containsExactly("time_record_p2019_05");
+        StepVerifier.create(rollupService.checkConsistency(LocalDate.of(2019, 5, 1), LocalDate.of(2019, 5, 31)))
+                .assertNext(report -> assertThat(report.isConsistent()).isTrue())
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private List<String> strings(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collect(Collectors.toList())
+                .block(Duration.ofSeconds(10));
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.reportingservice.integration;
+
+import com.example.reportingservice.service.TimeRecordRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+class TimeRecordRollupIT {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("reporting_db")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName());
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TimeRecordRollupService rollupService;
+
+    @Test
+    void rollupFollowsInsertsUpdatesAndDeletes() {
+        // Given: Tom books another hour on Project B and moves his 2024-02-02 record to 2024-02-03
+        execute("INSERT INTO time_record VALUES (100, 101, 2, '2024-02-01 18:00:00', '2024-02-01 19:00:00')");
+        execute("UPDATE time_record SET time_from = '2024-02-03 08:00:00', time_to = '2024-02-03 10:00:00' WHERE id = 3");
+        execute("DELETE FROM time_record WHERE id = 2");
+
+        // Then: the rollup reflects every change without a rebuild
+        assertThat(seconds(101, 2, "2024-02-01")).isEqualTo(3600L);
+        assertThat(seconds(101, 1, "2024-02-03")).isEqualTo(7200L);
+        assertThat(seconds(101, 1, "2024-02-02")).isNull();
+        assertThat(seconds(102, 2, "2024-02-01")).isNull();
+
+        StepVerifier.create(rollupService.checkConsistency())
+                .assertNext(report -> assertThat(report.isConsistent()).isTrue())
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void consistencyCheckReportsDriftAndRebuildRepairsIt() {
+        // Given: a rollup row corrupted behind the triggers' back
+        execute("UPDATE time_record_daily SET seconds = 1 WHERE employee_id = 101 AND project_id = 1 AND day = '2024-02-01'");
+
+        StepVerifier.create(rollupService.checkConsistency())
+                .assertNext(report -> {
+                    assertThat(report.isConsistent()).isFalse();
+                    assertThat(report.getDrift()).hasSize(1);
+                    assertThat(report.getDrift().get(0).getExpectedSeconds()).isEqualTo(32400L);
+                    assertThat(report.getDrift().get(0).getActualSeconds()).isEqualTo(1L);
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        // When: the rollup is rebuilt
+        StepVerifier.create(rollupService.rebuild().then(rollupService.checkConsistency()))
+                .assertNext(report -> assertThat(report.isConsistent()).isTrue())
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block(Duration.ofSeconds(10));
+    }
+
+    private Long seconds(long employeeId, long projectId, String day) {
+        return databaseClient.sql("SELECT seconds FROM time_record_daily WHERE employee_id = :employeeId AND project_id = :projectId AND day = CAST(:day AS DATE)")
+                .bind("employeeId", employeeId)
+                .bind("projectId", projectId)
+                .bind("day", day)
+                .map(row -> row.get("seconds", Long.class))
+                .one()
+                .block(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.reportingservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportQueryBuilderTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 2, 1);
+    private static final LocalDate END = LocalDate.of(2024, 2, 29);
+
+    @ParameterizedTest
+    @CsvSource({
+            "false, false, false",
+            "true, false, false",
+            "false, true, false",
+            "false, false, true",
+            "true, true, false",
+            "true, false, true",
+            "false, true, true",
+            "true, true, true"
+    })
+    void eachFilterCombinationGetsOnlyItsOwnPredicates(boolean withEmployee, boolean withStart, boolean withEnd) {
+        for (ReportQueryBuilder builder : List.of(ReportQueryBuilder.employees(), ReportQueryBuilder.projects())) {
+            ReportQuery query = builder
+                    .employeeId(withEmployee ? 101L : null)
+                    .startDate(withStart ? START : null)
+                    .endDate(withEnd ? END : null)
+                    .build();
+
+            List<String> expectedBindings = new ArrayList<>();
+            if (withStart) expectedBindings.add("startDate");
+            if (withEnd) expectedBindings.add("endDate");
+            if (withEmployee) expectedBindings.add("employeeId");
+
+            assertThat(query.getSql()).doesNotContain("IS NULL");
+            assertThat(query.getBindings()).containsOnlyKeys(expectedBindings);
+            assertThat(query.getSql().contains(":employeeId")).isEqualTo(withEmployee);
+            assertThat(query.getSql().contains("d.day >= :startDate")).isEqualTo(withStart);
+            assertThat(query.getSql().contains("d.day <= :endDate")).isEqualTo(withEnd);
+        }
+    }
+
+    @Test
+    void employeesQueryKeepsDayFiltersInJoinCondition() {
+        ReportQuery query = ReportQueryBuilder.employees()
+                .startDate(START)
+                .endDate(END)
+                .build();
+
+        assertThat(query.getSql())
+                .contains("LEFT JOIN time_record_daily d ON d.employee_id = e.id AND d.day >= :startDate AND d.day <= :endDate")
+                .doesNotContain("WHERE");
+    }
+
+    @Test
+    void projectsQueryFiltersRollupRowsDirectly() {
+        ReportQuery query = ReportQueryBuilder.projects()
+                .employeeId(101L)
+                .startDate(START)
+                .build();
+
+        assertThat(query.getSql()).contains("WHERE d.employee_id = :employeeId\n  AND d.day >= :startDate");
+        assertThat(query.getBindings()).containsEntry("employeeId", 101L).containsEntry("startDate", START);
+    }
+
+    @Test
+    void pageIdQueriesSeekPastCursorByPrimaryKey() {
+        ReportQuery employees = ReportQueryBuilder.employees()
+                .afterId(101L)
+                .startDate(START)
+                .buildPageIds(51);
+        ReportQuery projects = ReportQueryBuilder.projects()
+                .employeeId(101L)
+                .afterId(1L)
+                .endDate(END)
+                .buildPageIds(51);
+
+        assertThat(employees.getSql()).contains("WHERE e.id > :afterId\nORDER BY e.id\nLIMIT :limit").doesNotContain("OFFSET");
+        assertThat(employees.getBindings()).containsOnlyKeys("afterId", "limit").containsEntry("limit", 51);
+        assertThat(projects.getSql())
+                .contains("p.id > :afterId")
+                .contains("EXISTS (SELECT 1 FROM time_record_daily d WHERE d.project_id = p.id AND d.employee_id = :employeeId AND d.day <= :endDate)")
+                .contains("ORDER BY p.id\nLIMIT :limit");
+        assertThat(projects.getBindings()).containsOnlyKeys("employeeId", "afterId", "limit", "endDate");
+    }
+
+    @Test
+    void pageRestrictsReportToIdRange() {
+        ReportFilter filter = ReportFilter.of(null, START, null).withAfterId(101L).withUntilId(150L);
+
+        ReportQuery employees = ReportQueryBuilder.employees().filter(filter).build();
+        ReportQuery projects = ReportQueryBuilder.projects().filter(filter).build();
+
+        assertThat(employees.getSql()).contains("WHERE e.id > :afterId\n  AND e.id <= :untilId");
+        assertThat(projects.getSql()).contains("WHERE d.project_id > :afterId\n  AND d.project_id <= :untilId\n  AND d.day >= :startDate");
+        assertThat(employees.getBindings()).containsEntry("afterId", 101L).containsEntry("untilId", 150L);
+    }
+
+    @Test
+    void changedSinceReadsChangedKeysAndTheirCurrentRollupValue() {
+        ReportFilter filter = ReportFilter.of(101L, START, END).withChangedSince(500L);
+
+        ReportQuery employees = ReportQueryBuilder.employees().filter(filter).build();
+        ReportQuery projects = ReportQueryBuilder.projects().filter(filter).build();
+
+        for (ReportQuery query : List.of(employees, projects)) {
+            assertThat(query.getSql())
+                    .contains("WHERE modified_xid >= :changedSince::TEXT::XID8")
+                    .contains("WHERE deleted_xid >= :changedSince::TEXT::XID8")
+                    .contains("WHERE c.employee_id = :employeeId\n  AND c.day >= :startDate\n  AND c.day <= :endDate");
+            assertThat(query.getBindings()).containsOnlyKeys("changedSince", "employeeId", "startDate", "endDate")
+                    .containsEntry("changedSince", 500L);
+        }
+        assertThat(employees.getSql()).contains("LEFT JOIN time_record_daily d ON d.employee_id = c.employee_id AND d.project_id = c.project_id AND d.day = c.day");
+        assertThat(projects.getSql()).contains("LEFT JOIN time_record_daily d ON d.project_id = c.project_id AND d.day = c.day AND d.employee_id = :employeeId");
+    }
+}
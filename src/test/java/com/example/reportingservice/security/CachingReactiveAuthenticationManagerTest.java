@@ -0,0 +1,71 @@
+package com.example.reportingservice.security;
+
+import com.example.reportingservice.config.ReportingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingReactiveAuthenticationManagerTest {
+
+    private final AtomicInteger checks = new AtomicInteger();
+
+    // Accepts only user/user123, counting every password check
+    private final ReactiveAuthenticationManager passwordCheck = authentication -> Mono.defer(() -> {
+        checks.incrementAndGet();
+        if (!"user123".equals(authentication.getCredentials())) {
+            return Mono.error(new BadCredentialsException("Invalid Credentials"));
+        }
+        return Mono.just(UsernamePasswordAuthenticationToken.authenticated(
+                authentication.getName(), null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    });
+
+    private final CachingReactiveAuthenticationManager manager = new CachingReactiveAuthenticationManager(
+            passwordCheck, new ReportingProperties.CredentialCache(), new SimpleMeterRegistry());
+
+    @Test
+    void verifiedCredentialsAreCheckedOnlyOnce() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(manager.authenticate(credentials("user", "user123")))
+                    .assertNext(authentication -> assertThat(authentication.isAuthenticated()).isTrue())
+                    .verifyComplete();
+        }
+
+        assertThat(checks).hasValue(1);
+    }
+
+    @Test
+    void failedAttemptsAreNeverCached() {
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(manager.authenticate(credentials("user", "wrong")))
+                    .expectError(BadCredentialsException.class)
+                    .verify();
+        }
+
+        assertThat(checks).hasValue(2);
+    }
+
+    @Test
+    void differentPasswordForCachedUserIsChecked() {
+        manager.authenticate(credentials("user", "user123")).block();
+
+        StepVerifier.create(manager.authenticate(credentials("user", "user1234")))
+                .expectError(BadCredentialsException.class)
+                .verify();
+
+        assertThat(checks).hasValue(2);
+    }
+
+    private static Authentication credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
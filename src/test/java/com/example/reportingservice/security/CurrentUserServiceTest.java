@@ -0,0 +1,95 @@
+package com.example.reportingservice.security;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.model.UserEmployee;
+import com.example.reportingservice.repository.UserEmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserServiceTest {
+
+    @Mock
+    private UserEmployeeRepository userEmployeeRepository;
+
+    private CurrentUserService currentUserService;
+
+    @BeforeEach
+    void setUp() {
+        UserEmployeeMapping mapping = new UserEmployeeMapping(userEmployeeRepository, new ReportingProperties(), new SimpleMeterRegistry());
+        currentUserService = new CurrentUserService(mapping);
+    }
+
+    @Test
+    void adminIsResolvedWithoutMappingLookup() {
+        StepVerifier.create(currentUserService.resolve(authenticated("admin", "ROLE_ADMIN")))
+                .expectNext(ReportPrincipal.admin("admin"))
+                .verifyComplete();
+
+        verifyNoInteractions(userEmployeeRepository);
+    }
+
+    @Test
+    void userMappingIsLoadedOnceForRepeatedRequests() {
+        when(userEmployeeRepository.findById("user")).thenReturn(Mono.just(new UserEmployee("user", 101L)));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(currentUserService.resolve(authenticated("user", "ROLE_USER")))
+                    .expectNext(ReportPrincipal.user("user", 101L))
+                    .verifyComplete();
+        }
+
+        verify(userEmployeeRepository, times(1)).findById("user");
+    }
+
+    @Test
+    void unmappedUserHasNoEmployeeScope() {
+        when(userEmployeeRepository.findById("guest")).thenReturn(Mono.empty());
+
+        ReportPrincipal principal = currentUserService.resolve(authenticated("guest", "ROLE_USER")).block();
+
+        assertThat(principal).isEqualTo(ReportPrincipal.user("guest", null));
+        assertThatThrownBy(principal::requireEmployeeId)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("No employee mapping found for user: guest");
+    }
+
+    @Test
+    void principalResolvedForRequestTakesPrecedenceOverSecurityContext() {
+        Mono<ReportPrincipal> current = currentUserService.getCurrentPrincipal()
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticated("admin", "ROLE_ADMIN")))
+                .contextWrite(context -> context.put(ReportPrincipal.class, ReportPrincipal.user("user", 101L)));
+
+        StepVerifier.create(current)
+                .expectNext(ReportPrincipal.user("user", 101L))
+                .verifyComplete();
+    }
+
+    @Test
+    void withoutRequestPrincipalCallerIsResolvedFromSecurityContext() {
+        Mono<ReportPrincipal> current = currentUserService.getCurrentPrincipal()
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authenticated("admin", "ROLE_ADMIN")));
+
+        StepVerifier.create(current)
+                .expectNext(ReportPrincipal.admin("admin"))
+                .verifyComplete();
+    }
+
+    private static Authentication authenticated(String username, String authority) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList(authority));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.service.ReportCacheKey.ReportType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 2, 1);
+    private static final LocalDate END = LocalDate.of(2024, 2, 29);
+    private static final ReportCacheKey ADMIN_KEY = ReportCacheKey.admin(ReportType.EMPLOYEES, START, END);
+
+    private final ReportingProperties properties = new ReportingProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private ReportCache reportCache;
+
+    @BeforeEach
+    void setUp() {
+        reportCache = new ReportCache(properties, meterRegistry);
+    }
+
+    @Test
+    void secondRequestIsServedFromCache() {
+        assertThat(collect(ADMIN_KEY)).hasSize(2);
+        assertThat(collect(ADMIN_KEY)).hasSize(2);
+
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "reports").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "reports").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void callerScopesAreCachedSeparately() {
+        collect(ADMIN_KEY);
+        collect(ReportCacheKey.employee(ReportType.EMPLOYEES, 101L, START, END));
+        collect(ReportCacheKey.employee(ReportType.EMPLOYEES, 102L, START, END));
+
+        assertThat(executions).hasValue(3);
+    }
+
+    @Test
+    void changeInsideRangeInvalidatesEntry() {
+        collect(ADMIN_KEY);
+        reportCache.onTimeRecordsChanged(new TimeRecordsChangedEvent(LocalDate.of(2024, 2, 10)));
+        collect(ADMIN_KEY);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void changeOutsideRangeKeepsEntry() {
+        collect(ADMIN_KEY);
+        reportCache.onTimeRecordsChanged(new TimeRecordsChangedEvent(LocalDate.of(2024, 3, 1)));
+        collect(ADMIN_KEY);
+
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void reportCompletingAfterConcurrentChangeIsNotCached() {
+        Flux<EmployeeReport> report = reportCache.cached(ADMIN_KEY, source()
+                .doOnComplete(() -> reportCache.onTimeRecordsChanged(TimeRecordsChangedEvent.allDays())), ReportCache::estimateSize);
+        StepVerifier.create(report).expectNextCount(2).verifyComplete();
+
+        collect(ADMIN_KEY);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void reportNoLongerCacheableWhenCompletedIsNotCached() {
+        StepVerifier.create(reportCache.cached(ADMIN_KEY, source(), ReportCache::estimateSize, () -> false))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        collect(ADMIN_KEY);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void reportLargerThanMaxEntrySizeIsStreamedButNotCached() {
+        properties.getCache().setMaxEntrySize(DataSize.ofBytes(50));
+        reportCache = new ReportCache(properties, meterRegistry);
+
+        assertThat(collect(ADMIN_KEY)).hasSize(2);
+        assertThat(collect(ADMIN_KEY)).hasSize(2);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysExecutes() {
+        properties.getCache().setEnabled(false);
+        reportCache = new ReportCache(properties, meterRegistry);
+
+        collect(ADMIN_KEY);
+        collect(ADMIN_KEY);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    private List<EmployeeReport> collect(ReportCacheKey key) {
+        return reportCache.cached(key, source(), ReportCache::estimateSize).collectList().block();
+    }
+
+    private Flux<EmployeeReport> source() {
+        return Flux.defer(() -> {
+            executions.incrementAndGet();
+            return Flux.just(new EmployeeReport("Tom", List.of()), new EmployeeReport("Jerry", List.of()));
+        });
+    }
+}
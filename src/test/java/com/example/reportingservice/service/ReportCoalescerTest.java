@@ -0,0 +1,163 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.config.ReportingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportCoalescerTest {
+
+    private static final ReportCacheKey KEY = ReportCacheKey.admin(ReportCacheKey.ReportType.EMPLOYEES,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportingProperties properties = new ReportingProperties();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void requestJoiningAnExecutionGetsEveryReportFromTheFirstOn() {
+        ReportCoalescer coalescer = coalescer();
+        Sinks.Many<String> rows = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> report = counted(rows.asFlux());
+        List<String> first = new ArrayList<>();
+        List<String> joined = new ArrayList<>();
+
+        coalescer.coalesced(KEY, report, String::length).subscribe(first::add);
+        rows.tryEmitNext("Tom");
+        rows.tryEmitNext("Jerry");
+        coalescer.coalesced(KEY, report, String::length).subscribe(joined::add);
+        rows.tryEmitNext("Spike");
+        rows.tryEmitComplete();
+
+        assertThat(first).containsExactly("Tom", "Jerry", "Spike");
+        assertThat(joined).containsExactly("Tom", "Jerry", "Spike");
+        assertThat(executions).hasValue(1);
+        assertThat(requests("executed")).isEqualTo(1);
+        assertThat(requests("joined")).isEqualTo(1);
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void cancellingOneRequestLeavesTheOthersRunning() {
+        ReportCoalescer coalescer = coalescer();
+        Flux<Integer> report = counted(Flux.range(0, 1000));
+        BaseSubscriber<Integer> slow = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(3);
+            }
+        };
+        List<Integer> other = new ArrayList<>();
+
+        coalescer.coalesced(KEY, report, value -> 1).subscribe(slow);
+        coalescer.coalesced(KEY, report, value -> 1).subscribe(other::add);
+        assertThat(other).hasSizeLessThan(1000);
+        slow.cancel();
+
+        assertThat(other).hasSize(1000);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void lastRequestToCancelCancelsTheExecution() {
+        ReportCoalescer coalescer = coalescer();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<String> report = counted(Flux.<String>never().doOnCancel(() -> cancelled.set(true)));
+
+        var first = coalescer.coalesced(KEY, report, String::length).subscribe();
+        var second = coalescer.coalesced(KEY, report, String::length).subscribe();
+        first.dispose();
+        assertThat(cancelled).isFalse();
+        second.dispose();
+
+        assertThat(cancelled).isTrue();
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void readsAtMostPrefetchAheadOfTheSlowestRequest() {
+        properties.getCoalescing().setPrefetch(16);
+        properties.getCoalescing().setMaxReplaySize(DataSize.ofBytes(0));
+        ReportCoalescer coalescer = coalescer();
+        AtomicLong requested = new AtomicLong();
+        Flux<Integer> report = Flux.range(0, 10_000).doOnRequest(requested::addAndGet);
+
+        StepVerifier.create(coalescer.coalesced(KEY, report, value -> 1), 10)
+                .expectNextCount(10)
+                .thenAwait()
+                .then(() -> assertThat(requested.get()).isLessThanOrEqualTo(10 + 16))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(9_990)
+                .verifyComplete();
+    }
+
+    @Test
+    void requestsStartTheirOwnExecutionOnceTheReplayIsFull() {
+        properties.getCoalescing().setMaxReplaySize(DataSize.ofBytes(5));
+        ReportCoalescer coalescer = coalescer();
+        Sinks.Many<String> rows = Sinks.many().multicast().onBackpressureBuffer();
+        Flux<String> report = counted(rows.asFlux());
+
+        coalescer.coalesced(KEY, report, String::length).subscribe();
+        rows.tryEmitNext("Jerry");
+        coalescer.coalesced(KEY, report, String::length).subscribe();
+        rows.tryEmitNext("Spike");
+        coalescer.coalesced(KEY, report, String::length).subscribe();
+
+        assertThat(executions).hasValue(2);
+        assertThat(requests("joined")).isEqualTo(1);
+    }
+
+    @Test
+    void requestsStartTheirOwnExecutionAfterAChangeInTheirRange() {
+        ReportCoalescer coalescer = coalescer();
+        Flux<String> report = counted(Flux.never());
+
+        coalescer.coalesced(KEY, report, String::length).subscribe();
+        coalescer.onTimeRecordsChanged(new TimeRecordsChangedEvent(LocalDate.of(2024, 1, 15)));
+        coalescer.coalesced(KEY, report, String::length).subscribe();
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void errorsReachEveryRequest() {
+        ReportCoalescer coalescer = coalescer();
+        Sinks.Many<String> rows = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> report = counted(rows.asFlux());
+        AtomicInteger failed = new AtomicInteger();
+
+        coalescer.coalesced(KEY, report, String::length).subscribe(null, error -> failed.incrementAndGet());
+        coalescer.coalesced(KEY, report, String::length).subscribe(null, error -> failed.incrementAndGet());
+        rows.tryEmitError(new IllegalStateException("connection lost"));
+
+        assertThat(failed).hasValue(2);
+    }
+
+    private ReportCoalescer coalescer() {
+        properties.getCoalescing().setEnabled(true);
+        return new ReportCoalescer(properties, meterRegistry);
+    }
+
+    private <T> Flux<T> counted(Flux<T> report) {
+        return report.doOnSubscribe(subscription -> executions.incrementAndGet());
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("report.coalescing.requests").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.config.ReportingProperties;
+import com.example.reportingservice.dto.DailyHours;
+import com.example.reportingservice.dto.EmployeeReport;
+import com.example.reportingservice.dto.ProjectReport;
+import com.example.reportingservice.repository.DayRange;
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ProjectReportRow;
+import com.example.reportingservice.repository.ReportFilter;
+import com.example.reportingservice.repository.ReportQueryRepository;
+import com.example.reportingservice.security.CurrentUserService;
+import com.example.reportingservice.security.ReportPrincipal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private ReportQueryRepository reportQueryRepository;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Spy
+    private ReportCache reportCache = new ReportCache(new ReportingProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private ReportCoalescer reportCoalescer = new ReportCoalescer(coalescingEnabled(), new SimpleMeterRegistry());
+
+    @Spy
+    private ReportingProperties properties = new ReportingProperties();
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1000, 5000})
+    void whenAdmin_forEmployeesReport_thenQueryCountDoesNotGrowWithEmployees(int employeeCount) {
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findEmployeeRows(any()))
+                .thenReturn(Flux.fromIterable(employeeRows(employeeCount)));
+
+        StepVerifier.create(reportService.streamEmployeesReport(null, null))
+                .expectNextCount(employeeCount)
+                .verifyComplete();
+
+        verify(reportQueryRepository, times(1)).findEmployeeRows(ReportFilter.of(null, null, null));
+    }
+
+    @Test
+    void whenAdmin_forEmployeesReport_thenGroupsRowsPerEmployeeInStreamOrder() {
+        LocalDate day = LocalDate.of(2024, 2, 1);
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findEmployeeRows(any())).thenReturn(Flux.just(
+                new EmployeeReportRow(101L, "Tom", day, "Sample Project A", 32400L),
+                new EmployeeReportRow(101L, "Tom", day.plusDays(1), "Sample Project A", 32100L),
+                new EmployeeReportRow(102L, "Jerry", day, "Sample Project B", 34200L),
+                new EmployeeReportRow(103L, "Spike", null, null, 0L)));
+
+        StepVerifier.create(reportService.streamEmployeesReport(null, null))
+                .assertNext(report -> {
+                    assertThat(report.getName()).isEqualTo("Tom");
+                    assertThat(report.getHoursSpent()).hasSize(2);
+                    assertThat(report.getHoursSpent().get(1).getTotalSeconds()).isEqualTo(32100L);
+                })
+                .assertNext(report -> {
+                    assertThat(report.getName()).isEqualTo("Jerry");
+                    assertThat(report.getHoursSpent()).hasSize(1);
+                })
+                .assertNext(report -> {
+                    assertThat(report.getName()).isEqualTo("Spike");
+                    assertThat(report.getHoursSpent()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void whenAdmin_forProjectsReport_thenUsesSingleQueryAndGroupsRowsPerProject() {
+        LocalDate day = LocalDate.of(2024, 2, 1);
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findProjectRows(any())).thenReturn(Flux.just(
+                new ProjectReportRow(1L, "Sample Project A", day, 32400L),
+                new ProjectReportRow(1L, "Sample Project A", day.plusDays(1), 32100L),
+                new ProjectReportRow(2L, "Sample Project B", day, 34200L)));
+
+        StepVerifier.create(reportService.streamProjectsReport(null, null))
+                .assertNext(report -> {
+                    assertThat(report.getName()).isEqualTo("Sample Project A");
+                    assertThat(report.getHoursSpent()).hasSize(2);
+                    assertThat(report.getHoursSpent().get(1).getTotalSeconds()).isEqualTo(32100L);
+                })
+                .assertNext(report -> {
+                    assertThat(report.getName()).isEqualTo("Sample Project B");
+                    assertThat(report.getHoursSpent()).hasSize(1);
+                })
+                .verifyComplete();
+
+        verify(reportQueryRepository, times(1)).findProjectRows(ReportFilter.of(null, null, null));
+    }
+
+    @Test
+    void whenUser_forProjectsReport_thenQueriesOnlyOwnRowsOnce() {
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.user("user", 101L)));
+        when(reportQueryRepository.findProjectRows(any())).thenReturn(Flux.just(
+                new ProjectReportRow(1L, "Sample Project A", LocalDate.of(2024, 2, 1), 32400L)));
+
+        StepVerifier.create(reportService.streamProjectsReport(null, null))
+                .assertNext(report -> assertThat(report.getName()).isEqualTo("Sample Project A"))
+                .verifyComplete();
+
+        verify(reportQueryRepository, times(1)).findProjectRows(ReportFilter.of(101L, null, null));
+    }
+
+    @Test
+    void whenChunked_forEmployeesReport_thenSplitsEachEmployeeIntoConsecutiveChunks() {
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findEmployeeRows(any())).thenReturn(Flux.just(
+                new EmployeeReportRow(101L, "Tom", LocalDate.of(2024, 2, 1), "Sample Project A", 3600L),
+                new EmployeeReportRow(101L, "Tom", LocalDate.of(2024, 2, 2), "Sample Project A", 3600L),
+                new EmployeeReportRow(101L, "Tom", LocalDate.of(2024, 2, 3), "Sample Project A", 3600L),
+                new EmployeeReportRow(102L, "Jerry", LocalDate.of(2024, 2, 1), "Sample Project B", 36000L),
+                new EmployeeReportRow(103L, "Spike", null, null, 0L)));
+
+        StepVerifier.create(reportService.streamEmployeesReportChunks(null, null, 2))
+                .assertNext(report -> assertThat(report.getHoursSpent()).hasSize(2).allMatch(hours -> report.getId() == 101L))
+                .assertNext(report -> assertThat(report.getHoursSpent()).hasSize(1).allMatch(hours -> report.getId() == 101L))
+                .assertNext(report -> assertThat(report.getId()).isEqualTo(102L))
+                .assertNext(report -> {
+                    assertThat(report.getId()).isEqualTo(103L);
+                    assertThat(report.getName()).isEqualTo("Spike");
+                    assertThat(report.getHoursSpent()).isEmpty();
+                })
+                .verifyComplete();
+        verifyNoInteractions(reportCache);
+    }
+
+    @Test
+    void whenChunked_forProjectsReport_thenReadsOnlyAFewChunksAheadOfDemand() {
+        int days = 200_000;
+        int chunkSize = 500;
+        // The chunk being filled plus the rows prefetched from the query
+        long readAhead = 2L * chunkSize;
+        LocalDate firstDay = LocalDate.of(2000, 1, 1);
+        AtomicLong readRows = new AtomicLong();
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findProjectRows(any())).thenReturn(Flux.range(0, days)
+                .doOnNext(day -> readRows.incrementAndGet())
+                .map(day -> new ProjectReportRow(day < days / 2 ? 1L : 2L, "Project", firstDay.plusDays(day), 3600L)));
+
+        StepVerifier.create(reportService.streamProjectsReportChunks(null, null, chunkSize), 1)
+                .assertNext(report -> {
+                    assertThat(report.getId()).isEqualTo(1L);
+                    assertThat(report.getHoursSpent()).hasSize(chunkSize);
+                })
+                // Buffering a whole project would read its 100000 rows before the first chunk is consumed
+                .then(() -> assertThat(readRows.get()).isLessThanOrEqualTo(readAhead))
+                .thenRequest(200)
+                .expectNextCount(199)
+                .assertNext(report -> {
+                    assertThat(report.getId()).isEqualTo(2L);
+                    assertThat(report.getHoursSpent()).hasSize(chunkSize);
+                })
+                .then(() -> assertThat(readRows.get()).isLessThanOrEqualTo(201L * chunkSize + readAhead))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void whenPaging_forEmployeesReport_thenQueriesOnlyThePageIdRange() {
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findEmployeePageIds(any(), anyInt())).thenReturn(Flux.just(101L, 102L, 103L));
+        when(reportQueryRepository.findEmployeeRows(any())).thenReturn(Flux.just(
+                new EmployeeReportRow(101L, "Tom", null, null, 0L),
+                new EmployeeReportRow(102L, "Jerry", null, null, 0L)));
+
+        ReportPage<EmployeeReport> page = reportService.pageEmployeesReport(null, null, 100L, 2).block();
+
+        assertThat(page.getNextAfterId()).isEqualTo(102L);
+        StepVerifier.create(page.getReports())
+                .expectNextCount(2)
+                .verifyComplete();
+        ReportFilter pageFilter = ReportFilter.of(null, null, null).withAfterId(100L);
+        verify(reportQueryRepository).findEmployeePageIds(pageFilter, 3);
+        verify(reportQueryRepository).findEmployeeRows(pageFilter.withUntilId(102L));
+    }
+
+    @Test
+    void whenPaging_forProjectsReport_thenLastPageHasNoCursor() {
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findProjectPageIds(any(), anyInt())).thenReturn(Flux.just(2L));
+        when(reportQueryRepository.findProjectRows(any())).thenReturn(Flux.just(
+                new ProjectReportRow(2L, "Sample Project B", LocalDate.of(2024, 2, 1), 36000L)));
+
+        ReportPage<ProjectReport> page = reportService.pageProjectsReport(null, null, 1L, 2).block();
+
+        assertThat(page.getNextAfterId()).isNull();
+        StepVerifier.create(page.getReports())
+                .assertNext(report -> assertThat(report.getName()).isEqualTo("Sample Project B"))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenSharded_forEmployeesReport_thenQueriesSubRangesAndMergesPerEmployee() {
+        properties.getSharding().setEnabled(true);
+        properties.getSharding().setMaxShards(2);
+        properties.getSharding().setMinShardDays(1);
+        LocalDate january = LocalDate.of(2024, 1, 1);
+        LocalDate february = LocalDate.of(2024, 2, 1);
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findDayRange()).thenReturn(Mono.just(new DayRange(january, LocalDate.of(2024, 2, 29))));
+        when(reportQueryRepository.findEmployeeRows(ReportFilter.of(null, null, LocalDate.of(2024, 1, 30)))).thenReturn(Flux.just(
+                new EmployeeReportRow(101L, "Tom", january, "Sample Project A", 3600L),
+                new EmployeeReportRow(102L, "Jerry", null, null, 0L)));
+        when(reportQueryRepository.findEmployeeRows(ReportFilter.of(null, LocalDate.of(2024, 1, 31), null))).thenReturn(Flux.just(
+                new EmployeeReportRow(101L, "Tom", february, "Sample Project A", 7200L),
+                new EmployeeReportRow(102L, "Jerry", february, "Sample Project B", 3600L)));
+
+        StepVerifier.create(reportService.streamEmployeesReport(null, null))
+                .assertNext(report -> assertThat(report.getHoursSpent()).extracting(DailyHours::getDay).containsExactly(january, february))
+                .assertNext(report -> assertThat(report.getHoursSpent()).extracting(DailyHours::getDay).containsExactly(february))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenSharded_forOwnEmployee_thenQueriesWholeRange() {
+        properties.getSharding().setEnabled(true);
+        properties.getSharding().setMinShardDays(1);
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.user("user", 101L)));
+        when(reportQueryRepository.findProjectRows(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(reportService.streamProjectsReport(LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31)))
+                .verifyComplete();
+
+        verify(reportQueryRepository, times(1)).findProjectRows(any());
+        verify(reportQueryRepository, never()).findDayRange();
+    }
+
+    @Test
+    void whenAdminsRequestTheSameReportConcurrently_thenOneQueryServesBoth() {
+        Sinks.Many<EmployeeReportRow> rows = Sinks.many().unicast().onBackpressureBuffer();
+        when(currentUserService.getCurrentPrincipal()).thenReturn(Mono.just(ReportPrincipal.admin("admin")));
+        when(reportQueryRepository.findEmployeeRows(any())).thenReturn(rows.asFlux());
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+
+        reportService.streamEmployeesReport(null, null).map(EmployeeReport::getName).subscribe(first::add);
+        reportService.streamEmployeesReport(null, null).map(EmployeeReport::getName).subscribe(second::add);
+        employeeRows(2).forEach(rows::tryEmitNext);
+        rows.tryEmitComplete();
+
+        assertThat(first).containsExactly("Employee 1", "Employee 2");
+        assertThat(second).isEqualTo(first);
+        verify(reportQueryRepository, times(1)).findEmployeeRows(any());
+    }
+
+    private static List<EmployeeReportRow> employeeRows(int employeeCount) {
+        LocalDate day = LocalDate.of(2024, 2, 1);
+        List<EmployeeReportRow> rows = new ArrayList<>();
+        for (long employeeId = 1; employeeId <= employeeCount; employeeId++) {
+            rows.add(new EmployeeReportRow(employeeId, "Employee " + employeeId, day, "Project", 3600L));
+            rows.add(new EmployeeReportRow(employeeId, "Employee " + employeeId, day.plusDays(1), "Project", 36000L));
+        }
+        return rows;
+    }
+
+    private static ReportingProperties coalescingEnabled() {
+        ReportingProperties properties = new ReportingProperties();
+        properties.getCoalescing().setEnabled(true);
+        return properties;
+    }
+}
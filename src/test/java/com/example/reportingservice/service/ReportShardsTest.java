@@ -0,0 +1,84 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.repository.EmployeeReportRow;
+import com.example.reportingservice.repository.ProjectReportRow;
+import com.example.reportingservice.repository.ReportFilter;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportShardsTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void splitsRangeIntoConsecutiveSubRangesKeepingOpenEnds() {
+        ReportFilter filter = ReportFilter.of(null, null, null);
+
+        List<ReportFilter> shards = ReportShards.split(filter, JAN_1, LocalDate.of(2024, 12, 31), 4, 30);
+
+        assertThat(shards).extracting(ReportFilter::getStartDate)
+                .containsExactly(null, LocalDate.of(2024, 4, 1), LocalDate.of(2024, 7, 2), LocalDate.of(2024, 10, 1));
+        assertThat(shards).extracting(ReportFilter::getEndDate)
+                .containsExactly(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 7, 1), LocalDate.of(2024, 9, 30), null);
+    }
+
+    @Test
+    void keepsShortRangesInOneStatement() {
+        ReportFilter filter = ReportFilter.of(null, JAN_1, JAN_1.plusDays(100));
+
+        assertThat(ReportShards.split(filter, JAN_1, JAN_1.plusDays(100), 4, 90)).containsExactly(filter);
+        assertThat(ReportShards.split(filter, JAN_1, JAN_1.plusDays(100), 1, 1)).containsExactly(filter);
+        assertThat(ReportShards.split(ReportFilter.of(null, null, null), null, null, 4, 1)).hasSize(1);
+    }
+
+    @Test
+    void mergesEmployeeRowsOfShardsIntoSingleStatementOrder() {
+        LocalDate feb = JAN_1.plusMonths(1);
+        Flux<EmployeeReportRow> january = Flux.just(
+                row(1L, JAN_1, "B"), row(1L, JAN_1, "A"), row(1L, JAN_1.plusDays(1), "A"),
+                row(2L, null, null),
+                row(3L, null, null),
+                row(4L, JAN_1, "A"));
+        Flux<EmployeeReportRow> february = Flux.just(
+                row(1L, feb, "A"),
+                row(2L, feb, "A"), row(2L, feb.plusDays(1), "A"),
+                row(3L, null, null),
+                row(4L, null, null));
+
+        List<EmployeeReportRow> merged = ReportShards.mergeEmployeeRows(List.of(
+                        january.delayElements(Duration.ofMillis(2), Schedulers.parallel()),
+                        february.subscribeOn(Schedulers.boundedElastic())))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(merged).containsExactly(
+                row(1L, JAN_1, "B"), row(1L, JAN_1, "A"), row(1L, JAN_1.plusDays(1), "A"), row(1L, feb, "A"),
+                row(2L, feb, "A"), row(2L, feb.plusDays(1), "A"),
+                row(3L, null, null),
+                row(4L, JAN_1, "A"));
+    }
+
+    @Test
+    void mergesProjectRowsOfShardsByProjectAndDay() {
+        LocalDate feb = JAN_1.plusMonths(1);
+        List<ProjectReportRow> merged = ReportShards.mergeProjectRows(List.of(
+                        Flux.just(new ProjectReportRow(1L, "A", JAN_1, 60), new ProjectReportRow(3L, "C", JAN_1, 60)),
+                        Flux.just(new ProjectReportRow(1L, "A", feb, 60), new ProjectReportRow(2L, "B", feb, 60))))
+                .collectList()
+                .block();
+
+        assertThat(merged).extracting(row -> row.getProjectName() + " " + row.getDay())
+                .containsExactly("A 2024-01-01", "A 2024-02-01", "B 2024-02-01", "C 2024-01-01");
+    }
+
+    private static EmployeeReportRow row(long employeeId, LocalDate day, String projectName) {
+        return new EmployeeReportRow(employeeId, "Employee " + employeeId, day, projectName, day == null ? 0 : 3600);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.reportingservice.service;
+
+import com.example.reportingservice.exception.InvalidTimeRecordException;
+import com.example.reportingservice.model.TimeRecord;
+import com.example.reportingservice.repository.TimeRecordBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TimeRecordIngestionServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 2, 1, 8, 0);
+
+    private final TimeRecordBatchRepository batchRepository = mock(TimeRecordBatchRepository.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TimeRecordIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(batchRepository.upsert(anyList())).thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
+        ingestionService = new TimeRecordIngestionService(batchRepository, transactionalOperator, meterRegistry);
+    }
+
+    @Test
+    void writesRecordsInBatchesAndReportsThroughput() {
+        Flux<TimeRecord> records = Flux.range(1, 5).map(id -> record(id, START));
+
+        StepVerifier.create(ingestionService.ingest(records, 2))
+                .assertNext(result -> {
+                    assertThat(result.getRecords()).isEqualTo(5);
+                    assertThat(result.getBatches()).isEqualTo(3);
+                    assertThat(result.getRecordsPerSecond()).isPositive();
+                })
+                .verifyComplete();
+
+        verify(batchRepository, times(3)).upsert(anyList());
+        assertThat(meterRegistry.get("time_records.ingest.batch").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("time_records.ingest.records").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void lastRecordWinsForRepeatedIdInBatch() {
+        TimeRecord moved = record(1, START.plusDays(3));
+
+        StepVerifier.create(ingestionService.ingest(Flux.just(record(1, START), record(2, START), moved), 10))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(batchRepository).upsert(List.of(moved, record(2, START)));
+    }
+
+    @Test
+    void rejectsRecordEndingBeforeItStarts() {
+        TimeRecord invalid = new TimeRecord(1L, 101L, 1L, START, START.minusHours(1));
+
+        StepVerifier.create(ingestionService.ingest(Flux.just(invalid), 10))
+                .expectError(InvalidTimeRecordException.class)
+                .verify();
+
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void rejectsRecordsReferencingUnknownEmployeesOrProjects() {
+        when(batchRepository.upsert(anyList())).thenReturn(Mono.error(new DataIntegrityViolationException("fk_time_record_employee")));
+
+        StepVerifier.create(ingestionService.ingest(Flux.just(record(1, START)), 10))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(InvalidTimeRecordException.class)
+                        .hasMessage("Time records reference unknown employees or projects."))
+                .verify();
+    }
+
+    private static TimeRecord record(long id, LocalDateTime timeFrom) {
+        return new TimeRecord(id, 101L, 1L, timeFrom, timeFrom.plusHours(1));
+    }
+}